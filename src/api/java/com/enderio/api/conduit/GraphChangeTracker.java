@@ -0,0 +1,41 @@
+package com.enderio.api.conduit;
+
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.Mergeable;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of the graphs whose saved form is outdated, so only those are serialized again when the world saves.
+ * A graph changes when nodes join or leave it, its connections change or the extended conduit data of one of its nodes changes.
+ */
+public final class GraphChangeTracker {
+
+    private static final Set<Graph<Mergeable.Dummy>> CHANGED = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private GraphChangeTracker() {
+    }
+
+    public static void markChanged(@Nullable Graph<Mergeable.Dummy> graph) {
+        if (graph != null) {
+            CHANGED.add(graph);
+        }
+    }
+
+    @ApiStatus.Internal
+    public static boolean isChanged(Graph<Mergeable.Dummy> graph) {
+        return CHANGED.contains(graph);
+    }
+
+    /**
+     * @return whether the graph changed since the last call
+     */
+    @ApiStatus.Internal
+    public static boolean consumeChanged(Graph<Mergeable.Dummy> graph) {
+        return CHANGED.remove(graph);
+    }
+}
@@ -48,6 +48,7 @@ public interface IExtendedConduitData<T extends IExtendedConduitData<T>> extends
 
     /**
      * This method is called after otherData is integrated into this network. change this or otherData accordingly if you want shared state for all nodes in a graph (like fluids in fluid conduits)
+     * It is called once for each new connection, not with every node of the graph, so state that all nodes of a graph need has to be shared between them (see FluidGraphState)
      *
      * @param otherData
      */
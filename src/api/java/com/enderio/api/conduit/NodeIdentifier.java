@@ -1,5 +1,7 @@
 package com.enderio.api.conduit;
 
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
+import com.enderio.api.conduit.ticker.LoadedNodeIndex;
 import com.enderio.api.misc.ColorControl;
 import com.enderio.api.misc.RedstoneControl;
 import dev.gigaherz.graph3.Graph;
@@ -7,10 +9,15 @@ import dev.gigaherz.graph3.GraphObject;
 import dev.gigaherz.graph3.Mergeable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.LazyOptional;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -20,9 +27,18 @@ public class NodeIdentifier<T extends IExtendedConduitData<?>> implements GraphO
 
     @Nullable private Graph<Mergeable.Dummy> graph = null;
 
+    private boolean loaded = false;
+
     private final Map<Direction, IOState> ioStates = new EnumMap<>(Direction.class);
     private final T extendedConduitData;
 
+    // region Caches for external block interaction
+
+    private final Map<Capability<?>, EnumMap<Direction, LazyOptional<?>>> cachedCapabilities = new HashMap<>();
+    private int neighbourChanges = 0;
+
+    // endregion
+
     @ApiStatus.Internal
     public NodeIdentifier(BlockPos pos, T extendedConduitData) {
         this.pos = pos;
@@ -39,13 +55,51 @@ public class NodeIdentifier<T extends IExtendedConduitData<?>> implements GraphO
     @Override
     @ApiStatus.Internal
     public void setGraph(Graph<Mergeable.Dummy> graph) {
+        // Both graphs change their endpoints when this node moves between them (merge, split)
+        IOEndpointIndex.invalidate(this.graph);
+        GraphChangeTracker.markChanged(this.graph);
+        if (loaded) {
+            LoadedNodeIndex.remove(this.graph, this);
+            LoadedNodeIndex.add(graph, this);
+        }
         this.graph = graph;
+        IOEndpointIndex.invalidate(graph);
+        GraphChangeTracker.markChanged(graph);
+    }
+
+    /**
+     * @return whether the conduit of this node is currently loaded, see {@link LoadedNodeIndex}
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @ApiStatus.Internal
+    public void setLoaded(boolean loaded) {
+        if (this.loaded == loaded) {
+            return;
+        }
+
+        this.loaded = loaded;
+        if (loaded) {
+            LoadedNodeIndex.add(graph, this);
+        } else {
+            LoadedNodeIndex.remove(graph, this);
+        }
+    }
+
+    /**
+     * Marks the graph of this node to be saved again, call this after changing the extended conduit data on the server.
+     */
+    public void markDirty() {
+        GraphChangeTracker.markChanged(graph);
     }
 
     @ApiStatus.Internal
     public void pushState(Direction direction, @Nullable ColorControl insert, @Nullable ColorControl extract, RedstoneControl control,
         ColorControl redstoneChannel) {
         ioStates.put(direction, IOState.of(insert, extract, control, redstoneChannel));
+        IOEndpointIndex.invalidate(graph);
     }
 
     public Optional<IOState> getIOState(Direction direction) {
@@ -59,12 +113,63 @@ public class NodeIdentifier<T extends IExtendedConduitData<?>> implements GraphO
     @ApiStatus.Internal
     public void clearState(Direction direction) {
         ioStates.remove(direction);
+        IOEndpointIndex.invalidate(graph);
     }
 
     public BlockPos getPos() {
         return pos;
     }
 
+    // region Neighbouring Capabilities
+
+    /**
+     * @return the capability of the block next to this node, cached until the capability is invalidated or a neighbour changes
+     */
+    @ApiStatus.Internal
+    public <C> LazyOptional<C> getNeighbouringCapability(Level level, Capability<C> capability, Direction side) {
+        EnumMap<Direction, LazyOptional<?>> capabilities = cachedCapabilities.computeIfAbsent(capability, ignored -> new EnumMap<>(Direction.class));
+        LazyOptional<?> cached = capabilities.get(side);
+        if (cached != null) {
+            return cached.cast();
+        }
+
+        BlockPos neighbourPos = pos.relative(side);
+        if (!level.isLoaded(neighbourPos)) {
+            // Nothing is cached here, as chunk loads do not cause neighbour updates.
+            return LazyOptional.empty();
+        }
+
+        BlockEntity neighbour = level.getBlockEntity(neighbourPos);
+        LazyOptional<C> resolved = neighbour != null ? neighbour.getCapability(capability, side.getOpposite()) : LazyOptional.empty();
+        if (resolved.isPresent()) {
+            resolved.addListener(invalidated -> capabilities.remove(side, invalidated));
+        }
+
+        capabilities.put(side, resolved);
+        return resolved;
+    }
+
+    /**
+     * Drops cached neighbouring capabilities that are absent, as a new block entity might provide them now.
+     * Present capabilities stay cached, they are removed by their invalidation listener.
+     */
+    @ApiStatus.Internal
+    public void invalidateNeighbouringCapabilities() {
+        neighbourChanges++;
+        for (EnumMap<Direction, LazyOptional<?>> capabilities : cachedCapabilities.values()) {
+            capabilities.values().removeIf(cached -> !cached.isPresent());
+        }
+    }
+
+    /**
+     * @return a counter that changes whenever a neighbour of this node changed, including the contents of neighbouring block entities
+     */
+    public int getNeighbourChanges() {
+        return neighbourChanges;
+    }
+
+    // endregion
+
     public record IOState(Optional<ColorControl> insert, Optional<ColorControl> extract, RedstoneControl control, ColorControl redstoneChannel) {
 
         public boolean isInsert() {
@@ -2,6 +2,7 @@ package com.enderio.api.conduit.ticker;
 
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.IExtendedConduitData;
+import com.enderio.api.conduit.NodeIdentifier;
 import com.enderio.api.misc.ColorControl;
 import dev.gigaherz.graph3.Graph;
 import dev.gigaherz.graph3.Mergeable;
@@ -23,22 +24,22 @@ public abstract class CapabilityAwareConduitTicker<T> implements IIOAwareConduit
         Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
         List<CapabilityConnection> insertCaps = new ArrayList<>();
         for (Connection insert : inserts) {
-            Optional
-                .ofNullable(level.getBlockEntity(insert.move()))
-                .flatMap(b -> b.getCapability(getCapability(), insert.dir().getOpposite()).resolve())
-                .ifPresent(cap -> insertCaps.add(new CapabilityConnection(cap, insert.data(), insert.dir())));
+            T cap = insert.node().getNeighbouringCapability(level, getCapability(), insert.dir()).orElse(null);
+            if (cap != null) {
+                insertCaps.add(new CapabilityConnection(cap, insert.node(), insert.data(), insert.dir()));
+            }
         }
         if (!insertCaps.isEmpty()) {
             List<CapabilityConnection> extractCaps = new ArrayList<>();
 
             for (Connection extract : extracts) {
-                Optional
-                    .ofNullable(level.getBlockEntity(extract.move()))
-                    .flatMap(b -> b.getCapability(getCapability(), extract.dir().getOpposite()).resolve())
-                    .ifPresent(cap -> extractCaps.add(new CapabilityConnection(cap, extract.data(), extract.dir())));
+                T cap = extract.node().getNeighbouringCapability(level, getCapability(), extract.dir()).orElse(null);
+                if (cap != null) {
+                    extractCaps.add(new CapabilityConnection(cap, extract.node(), extract.data(), extract.dir()));
+                }
             }
             if (!extractCaps.isEmpty()) {
-                tickCapabilityGraph(type, insertCaps, extractCaps, level, graph, isRedstoneActive);
+                tickCapabilityGraph(type, insertCaps, extractCaps, color, level, graph, isRedstoneActive);
             }
         }
     }
@@ -52,17 +53,19 @@ public abstract class CapabilityAwareConduitTicker<T> implements IIOAwareConduit
     }
 
     protected abstract void tickCapabilityGraph(IConduitType<?> type, List<CapabilityConnection> inserts, List<CapabilityConnection> extracts,
-        ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive );
+        ColorControl color, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive );
 
     protected abstract Capability<T> getCapability();
 
     public class CapabilityConnection {
         public final T cap;
+        public final NodeIdentifier<?> node;
         public final IExtendedConduitData<?> data;
         public final Direction direction;
 
-        private CapabilityConnection(T cap, IExtendedConduitData<?> data, Direction direction) {
+        private CapabilityConnection(T cap, NodeIdentifier<?> node, IExtendedConduitData<?> data, Direction direction) {
             this.cap = cap;
+            this.node = node;
             this.data = data;
             this.direction = direction;
         }
@@ -6,10 +6,13 @@ import dev.gigaherz.graph3.Graph;
 import dev.gigaherz.graph3.Mergeable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.Level;
 import org.apache.commons.lang3.function.TriFunction;
 
+import java.util.List;
+
 public interface IConduitTicker {
 
     void tickGraph(IConduitType<?> type, Graph<Mergeable.Dummy> graph, ServerLevel level, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive);
@@ -31,6 +34,20 @@ public interface IConduitTicker {
         return false;
     }
 
+    /**
+     * @return whether the graph has state that changes too often to mark the graph changed for, and that changed since it was last written, see {@link #writeUnsavedState}
+     */
+    default boolean hasUnsavedState(Graph<Mergeable.Dummy> graph) {
+        return false;
+    }
+
+    /**
+     * Writes the state from {@link #hasUnsavedState} into the saved form of a graph, which is otherwise reused while the graph doesn't change.
+     * @param nodeData the saved extended conduit data of each node of the graph
+     */
+    default void writeUnsavedState(Graph<Mergeable.Dummy> graph, List<CompoundTag> nodeData) {
+    }
+
     /**
      * return true if both types are similar and share the same extended conduit data
      */
@@ -5,38 +5,30 @@ import com.enderio.api.conduit.IExtendedConduitData;
 import com.enderio.api.conduit.NodeIdentifier;
 import com.enderio.api.misc.ColorControl;
 import com.enderio.api.misc.RedstoneControl;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
 import dev.gigaherz.graph3.Graph;
-import dev.gigaherz.graph3.GraphObject;
 import dev.gigaherz.graph3.Mergeable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import org.apache.commons.lang3.function.TriFunction;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface IIOAwareConduitTicker extends ILoadedAwareConduitTicker {
     @Override
     default void tickGraph(IConduitType<?> type, List<NodeIdentifier<?>> loadedNodes, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
-        ListMultimap<ColorControl, Connection> extracts = ArrayListMultimap.create();
-        ListMultimap<ColorControl, Connection> inserts = ArrayListMultimap.create();
-        for (GraphObject<Mergeable.Dummy> object : loadedNodes) {
-            if (object instanceof NodeIdentifier<?> nodeIdentifier) {
-                for (Direction direction: Direction.values()) {
-                    nodeIdentifier.getIOState(direction)
-                        .ifPresent(ioState -> {
-                            ioState.extract().filter(extract -> isRedstoneMode(type, level, nodeIdentifier.getPos(), ioState, isRedstoneActive)).ifPresent(color -> extracts.get(color).add(new Connection(nodeIdentifier.getPos(), direction, nodeIdentifier.getExtendedConduitData())));
-                            ioState.insert().ifPresent(color -> inserts.get(color).add(new Connection(nodeIdentifier.getPos(), direction, nodeIdentifier.getExtendedConduitData())));
-                    });
-                }
+        IOEndpointIndex index = IOEndpointIndex.of(graph);
+        for (ColorControl color: index.getActiveColors()) {
+            List<Connection> extractList = filterEndpoints(index.getExtracts(color), endpoint -> endpoint.node().isLoaded()
+                && isRedstoneMode(type, level, endpoint.node().getPos(), endpoint.state(), isRedstoneActive));
+            if (extractList.isEmpty()) {
+                continue;
             }
-        }
-        for (ColorControl color: ColorControl.values()) {
-            List<Connection> extractList = extracts.get(color);
-            List<Connection> insertList = inserts.get(color);
-            if (extractList.isEmpty() || insertList.isEmpty()) {
+
+            List<Connection> insertList = filterEndpoints(index.getInserts(color), endpoint -> endpoint.node().isLoaded());
+            if (insertList.isEmpty()) {
                 continue;
             }
 
@@ -44,6 +36,16 @@ public interface IIOAwareConduitTicker extends ILoadedAwareConduitTicker {
         }
     }
 
+    private static List<Connection> filterEndpoints(List<IOEndpointIndex.Endpoint> endpoints, Predicate<IOEndpointIndex.Endpoint> filter) {
+        List<Connection> connections = new ArrayList<>(endpoints.size());
+        for (IOEndpointIndex.Endpoint endpoint : endpoints) {
+            if (filter.test(endpoint)) {
+                connections.add(endpoint.connection());
+            }
+        }
+        return connections;
+    }
+
     void tickColoredGraph(IConduitType<?> type, List<Connection> inserts, List<Connection> extracts, ColorControl color, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive);
     default boolean isRedstoneMode(IConduitType<?> type, ServerLevel level, BlockPos pos, NodeIdentifier.IOState state, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
         if (!type.getMenuData().showRedstoneExtract()) {
@@ -68,9 +70,17 @@ public interface IIOAwareConduitTicker extends ILoadedAwareConduitTicker {
 
         return state.control().isActive(hasRedstone || isRedstoneActive.apply(level, pos, state.redstoneChannel()));
     }
-    record Connection(BlockPos pos, Direction dir, IExtendedConduitData<?> data) {
+    record Connection(NodeIdentifier<?> node, Direction dir) {
+        public BlockPos pos() {
+            return node.getPos();
+        }
+
+        public IExtendedConduitData<?> data() {
+            return node.getExtendedConduitData();
+        }
+
         public BlockPos move() {
-            return pos.relative(dir);
+            return pos().relative(dir);
         }
     }
 }
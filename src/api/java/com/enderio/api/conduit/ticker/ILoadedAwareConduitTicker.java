@@ -4,7 +4,6 @@ import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.NodeIdentifier;
 import com.enderio.api.misc.ColorControl;
 import dev.gigaherz.graph3.Graph;
-import dev.gigaherz.graph3.GraphObject;
 import dev.gigaherz.graph3.Mergeable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
@@ -12,19 +11,23 @@ import net.minecraft.world.level.Level;
 import org.apache.commons.lang3.function.TriFunction;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public interface ILoadedAwareConduitTicker extends IConduitTicker {
 
+    /**
+     * Only visits the nodes in {@link LoadedNodeIndex}, graphs without any loaded node are skipped entirely.
+     * The index follows the chunks of the nodes, so their positions are not looked up in the level again.
+     */
     @Override
     default void tickGraph(IConduitType<?> type, Graph<Mergeable.Dummy> graph, ServerLevel level, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
-        List<NodeIdentifier<?>> nodeIdentifiers = new ArrayList<>();
-        for (GraphObject<Mergeable.Dummy> object : graph.getObjects()) {
-            if (object instanceof NodeIdentifier<?> node && isLoaded(level, node.getPos())) {
-                nodeIdentifiers.add(node);
-            }
+        Collection<NodeIdentifier<?>> loadedNodes = LoadedNodeIndex.of(graph);
+        if (loadedNodes.isEmpty()) {
+            return;
         }
-        tickGraph(type, nodeIdentifiers, level, graph, isRedstoneActive);
+
+        tickGraph(type, new ArrayList<>(loadedNodes), level, graph, isRedstoneActive);
     }
 
     void tickGraph(IConduitType<?> type, List<NodeIdentifier<?>> loadedNodes, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive);
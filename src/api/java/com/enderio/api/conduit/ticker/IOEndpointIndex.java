@@ -0,0 +1,134 @@
+package com.enderio.api.conduit.ticker;
+
+import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.misc.ColorControl;
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.GraphObject;
+import dev.gigaherz.graph3.Mergeable;
+import net.minecraft.core.Direction;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Insert and extract endpoints of a graph, grouped by color.
+ * The index is only rebuilt after an IO state of one of its nodes changed or nodes joined or left the graph, not every tick.
+ */
+public final class IOEndpointIndex {
+
+    private static final Map<Graph<Mergeable.Dummy>, IOEndpointIndex> INDICES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<ColorControl, List<Endpoint>> inserts = new EnumMap<>(ColorControl.class);
+    private final Map<ColorControl, List<Endpoint>> extracts = new EnumMap<>(ColorControl.class);
+    private final List<ColorControl> activeColors = new ArrayList<>();
+    private int endpointCount = 0;
+    private boolean dirty = true;
+    private int revision = 0;
+
+    private IOEndpointIndex() {
+    }
+
+    public static IOEndpointIndex of(Graph<Mergeable.Dummy> graph) {
+        IOEndpointIndex index = INDICES.computeIfAbsent(graph, ignored -> new IOEndpointIndex());
+        if (index.dirty) {
+            index.rebuild(graph);
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of the graph if it is built and current, without building it
+     */
+    @Nullable
+    public static IOEndpointIndex getIfBuilt(Graph<Mergeable.Dummy> graph) {
+        IOEndpointIndex index = INDICES.get(graph);
+        return index != null && !index.dirty ? index : null;
+    }
+
+    /**
+     * Marks the index of the graph as outdated, it is rebuilt the next time it is requested.
+     */
+    @ApiStatus.Internal
+    public static void invalidate(@Nullable Graph<Mergeable.Dummy> graph) {
+        if (graph == null) {
+            return;
+        }
+
+        IOEndpointIndex index = INDICES.get(graph);
+        if (index != null) {
+            index.clear();
+        }
+    }
+
+    /**
+     * @return all colors that have at least one insert and one extract endpoint, in {@link ColorControl} order
+     */
+    public List<ColorControl> getActiveColors() {
+        return activeColors;
+    }
+
+    /**
+     * @return a number that changes every time the index is rebuilt, so the topology or IO states of the graph might have changed
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return the amount of sides of all nodes that insert, extract or both
+     */
+    public int getEndpointCount() {
+        return endpointCount;
+    }
+
+    public List<Endpoint> getInserts(ColorControl color) {
+        return inserts.getOrDefault(color, List.of());
+    }
+
+    public List<Endpoint> getExtracts(ColorControl color) {
+        return extracts.getOrDefault(color, List.of());
+    }
+
+    private void clear() {
+        dirty = true;
+        inserts.clear();
+        extracts.clear();
+        activeColors.clear();
+        endpointCount = 0;
+    }
+
+    private void rebuild(Graph<Mergeable.Dummy> graph) {
+        clear();
+        for (GraphObject<Mergeable.Dummy> object : graph.getObjects()) {
+            if (object instanceof NodeIdentifier<?> node) {
+                for (Direction direction : Direction.values()) {
+                    node.getIOState(direction).ifPresent(ioState -> {
+                        Endpoint endpoint = new Endpoint(node, ioState, new IIOAwareConduitTicker.Connection(node, direction));
+                        endpointCount++;
+                        ioState.extract().ifPresent(color -> extracts.computeIfAbsent(color, ignored -> new ArrayList<>()).add(endpoint));
+                        ioState.insert().ifPresent(color -> inserts.computeIfAbsent(color, ignored -> new ArrayList<>()).add(endpoint));
+                    });
+                }
+            }
+        }
+
+        inserts.replaceAll((color, list) -> List.copyOf(list));
+        extracts.replaceAll((color, list) -> List.copyOf(list));
+        for (ColorControl color : ColorControl.values()) {
+            if (inserts.containsKey(color) && extracts.containsKey(color)) {
+                activeColors.add(color);
+            }
+        }
+        revision++;
+        dirty = false;
+    }
+
+    public record Endpoint(NodeIdentifier<?> node, NodeIdentifier.IOState state, IIOAwareConduitTicker.Connection connection) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.enderio.api.conduit.ticker;
+
+import com.enderio.api.conduit.NodeIdentifier;
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.Mergeable;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The nodes of each graph whose block entity is currently loaded.
+ * Nodes are added and removed when their conduit is loaded or unloaded with its chunk, so tickers never have to check unloaded nodes.
+ */
+public final class LoadedNodeIndex {
+
+    private static final Map<Graph<Mergeable.Dummy>, Set<NodeIdentifier<?>>> LOADED_NODES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private LoadedNodeIndex() {
+    }
+
+    /**
+     * @return the loaded nodes of the graph, empty if the whole graph is dormant
+     */
+    public static Collection<NodeIdentifier<?>> of(Graph<Mergeable.Dummy> graph) {
+        Set<NodeIdentifier<?>> nodes = LOADED_NODES.get(graph);
+        return nodes != null ? Collections.unmodifiableSet(nodes) : Set.of();
+    }
+
+    public static int count(Graph<Mergeable.Dummy> graph) {
+        Set<NodeIdentifier<?>> nodes = LOADED_NODES.get(graph);
+        return nodes != null ? nodes.size() : 0;
+    }
+
+    @ApiStatus.Internal
+    public static void add(@Nullable Graph<Mergeable.Dummy> graph, NodeIdentifier<?> node) {
+        if (graph != null) {
+            LOADED_NODES.computeIfAbsent(graph, ignored -> new LinkedHashSet<>()).add(node);
+        }
+    }
+
+    @ApiStatus.Internal
+    public static void remove(@Nullable Graph<Mergeable.Dummy> graph, NodeIdentifier<?> node) {
+        if (graph == null) {
+            return;
+        }
+
+        Set<NodeIdentifier<?>> nodes = LOADED_NODES.get(graph);
+        if (nodes != null) {
+            nodes.remove(node);
+            if (nodes.isEmpty()) {
+                LOADED_NODES.remove(graph);
+            }
+        }
+    }
+}
@@ -6,12 +6,14 @@ import com.enderio.api.misc.RedstoneControl;
 import com.enderio.base.client.model.PaintingQuadTransformer;
 import com.enderio.conduits.common.Area;
 import com.enderio.conduits.common.blockentity.ConduitBlockEntity;
-import com.enderio.conduits.common.blockentity.ConduitBundle;
-import com.enderio.conduits.common.blockentity.ConduitConnection;
+import com.enderio.conduits.common.blockentity.ConduitBundleRenderState;
 import com.enderio.conduits.common.blockentity.OffsetHelper;
 import com.enderio.conduits.common.blockentity.connection.DynamicConnectionState;
 import com.enderio.conduits.common.blockentity.connection.IConnectionState;
 import com.enderio.core.data.model.EIOModel;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.mojang.math.Axis;
 import com.mojang.math.Transformation;
 import net.minecraft.client.Minecraft;
@@ -58,140 +60,176 @@ import static com.enderio.conduits.client.ConduitClientSetup.modelOf;
 
 public class ConduitBlockModel implements IDynamicBakedModel {
 
+    private static final int QUAD_CACHE_SIZE = 2048;
+
+    /**
+     * Most conduits in a world look like a few others, so the quads are cached by what is rendered.
+     * The model is baked again on resource reload, which drops the cache with the old sprites.
+     */
+    private final Cache<QuadCacheKey, List<BakedQuad>> quadCache = CacheBuilder.newBuilder().maximumSize(QUAD_CACHE_SIZE).recordStats().build();
+
     @Override
     public List<BakedQuad> getQuads(@Nullable BlockState state, @Nullable Direction side, RandomSource rand, ModelData extraData,
         @Nullable RenderType renderType) {
-        List<BakedQuad> quads = new ArrayList<>();
-        ConduitBundle conduitBundle = extraData.get(ConduitBlockEntity.BUNDLE_MODEL_PROPERTY);
+        ConduitBundleRenderState conduitBundle = extraData.get(ConduitBlockEntity.BUNDLE_MODEL_PROPERTY);
         BlockPos pos = extraData.get(ConduitBlockEntity.POS);
-        if (conduitBundle != null && pos != null) {
-            Direction.Axis axis = OffsetHelper.findMainAxis(conduitBundle);
-            Map<IConduitType<?>, List<Vec3i>> offsets = new HashMap<>();
-            for (Direction direction : Direction.values()) {
-                Direction preRotation = rotateDirection(direction, side);
-                ConduitConnection connection = conduitBundle.getConnection(direction);
-                IQuadTransformer rotation = QuadTransformers.applying(rotateTransformation(direction));
+        if (conduitBundle == null || pos == null) {
+            return List.of();
+        }
+
+        // Facades are tinted by the biome at their position, so they can't be shared
+        if (conduitBundle.hasFacades()) {
+            return createQuads(state, side, rand, extraData, renderType, conduitBundle, pos);
+        }
+
+        QuadCacheKey key = new QuadCacheKey(conduitBundle, side, renderType);
+        List<BakedQuad> quads = quadCache.getIfPresent(key);
+        if (quads == null) {
+            quads = List.copyOf(createQuads(state, side, rand, extraData, renderType, conduitBundle, pos));
+            quadCache.put(key, quads);
+        }
+
+        return quads;
+    }
+
+    // The cache stats, clearing the cache and createQuads are package-private for the ConduitModelBenchmark of the game tests
+    CacheStats getQuadCacheStats() {
+        return quadCache.stats();
+    }
+
+    void clearQuadCache() {
+        quadCache.invalidateAll();
+    }
+
+    List<BakedQuad> createQuads(@Nullable BlockState state, @Nullable Direction side, RandomSource rand, ModelData extraData,
+        @Nullable RenderType renderType, ConduitBundleRenderState conduitBundle, BlockPos pos) {
+        List<BakedQuad> quads = new ArrayList<>();
+        Direction.Axis axis = OffsetHelper.findMainAxis(conduitBundle);
+        Map<IConduitType<?>, List<Vec3i>> offsets = new HashMap<>();
+        for (Direction direction : Direction.values()) {
+            Direction preRotation = rotateDirection(direction, side);
+            ConduitBundleRenderState.ConnectionRenderState connection = conduitBundle.getConnection(direction);
+            IQuadTransformer rotation = QuadTransformers.applying(rotateTransformation(direction));
+            if (connection.isEnd()) {
+                quads.addAll(rotation.process(modelOf(CONDUIT_CONNECTOR).getQuads(state, preRotation, rand, extraData, renderType)));
+            }
+            var connectedTypes = connection.getConnectedTypes();
+            for (int i = 0; i < connectedTypes.size(); i++) {
+                IConduitType<?> type = connectedTypes.get(i);
+                Vec3i offset = OffsetHelper.translationFor(direction.getAxis(), OffsetHelper.offsetConduit(i, connectedTypes.size()));
+                offsets.computeIfAbsent(type, ignored -> new ArrayList<>()).add(offset);
+                IQuadTransformer rotationTranslation = rotation.andThen(QuadTransformers.applying(translateTransformation(offset)));
+                quads.addAll(new ConduitTextureEmissiveQuadTransformer(sprite(type, conduitBundle.getExtendedData(type)), 0)
+                    .andThen(rotationTranslation)
+                    .process(modelOf(CONDUIT_CONNECTION).getQuads(state, preRotation, rand, extraData, renderType)));
+                quads.addAll(rotationTranslation.process(type
+                    .getClientData()
+                    .createConnectionQuads(conduitBundle.getExtendedData(type).cast(), side, direction, rand, renderType)));
                 if (connection.isEnd()) {
-                    quads.addAll(rotation.process(modelOf(CONDUIT_CONNECTOR).getQuads(state, preRotation, rand, extraData, renderType)));
-                }
-                var connectedTypes = connection.getConnectedTypes();
-                for (int i = 0; i < connectedTypes.size(); i++) {
-                    IConduitType<?> type = connectedTypes.get(i);
-                    Vec3i offset = OffsetHelper.translationFor(direction.getAxis(), OffsetHelper.offsetConduit(i, connectedTypes.size()));
-                    offsets.computeIfAbsent(type, ignored -> new ArrayList<>()).add(offset);
-                    IQuadTransformer rotationTranslation = rotation.andThen(QuadTransformers.applying(translateTransformation(offset)));
-                    quads.addAll(new ConduitTextureEmissiveQuadTransformer(sprite(type, conduitBundle.getNodeFor(type).getExtendedConduitData()), 0)
-                        .andThen(rotationTranslation)
-                        .process(modelOf(CONDUIT_CONNECTION).getQuads(state, preRotation, rand, extraData, renderType)));
-                    quads.addAll(rotationTranslation.process(type
-                        .getClientData()
-                        .createConnectionQuads(conduitBundle.getNodeFor(type).getExtendedConduitData().cast(), side, direction, rand, renderType)));
-                    if (connection.isEnd()) {
-                        quads.addAll(rotationTranslation.process(modelOf(CONDUIT_CONNECTION_BOX).getQuads(state, preRotation, rand, extraData, renderType)));
-
-                        IConnectionState connectionState = connection.getConnectionState(type);
-                        if (connectionState instanceof DynamicConnectionState dyn) {
-                            IQuadTransformer color = rotationTranslation.andThen(new ColorQuadTransformer(dyn.insert(), dyn.extract()));
-                            BakedModel model = null;
-                            if (dyn.isExtract() && dyn.isInsert()) {
-                                model = modelOf(CONDUIT_IO_IN_OUT);
-                            } else if (dyn.isInsert()) {
-                                model = modelOf(CONDUIT_IO_IN);
-                            } else if (dyn.isExtract()) {
-                                model = modelOf(CONDUIT_IO_OUT);
-                            }
-
-                            if (model != null) {
-                                quads.addAll(color.process(model.getQuads(state, preRotation, rand, extraData, renderType)));
-                            }
-
-                            if (dyn.control() == RedstoneControl.ACTIVE_WITH_SIGNAL || dyn.control() == RedstoneControl.ACTIVE_WITHOUT_SIGNAL) {
-                                quads.addAll(rotationTranslation
-                                    .andThen(new ColorQuadTransformer(null, dyn.redstoneChannel()))
-                                    .process(modelOf(CONDUIT_IO_REDSTONE).getQuads(state, preRotation, rand, extraData, renderType)));
-                            }
+                    quads.addAll(rotationTranslation.process(modelOf(CONDUIT_CONNECTION_BOX).getQuads(state, preRotation, rand, extraData, renderType)));
+
+                    IConnectionState connectionState = connection.getConnectionState(type);
+                    if (connectionState instanceof DynamicConnectionState dyn) {
+                        IQuadTransformer color = rotationTranslation.andThen(new ColorQuadTransformer(dyn.insert(), dyn.extract()));
+                        BakedModel model = null;
+                        if (dyn.isExtract() && dyn.isInsert()) {
+                            model = modelOf(CONDUIT_IO_IN_OUT);
+                        } else if (dyn.isInsert()) {
+                            model = modelOf(CONDUIT_IO_IN);
+                        } else if (dyn.isExtract()) {
+                            model = modelOf(CONDUIT_IO_OUT);
+                        }
+
+                        if (model != null) {
+                            quads.addAll(color.process(model.getQuads(state, preRotation, rand, extraData, renderType)));
+                        }
+
+                        if (dyn.control() == RedstoneControl.ACTIVE_WITH_SIGNAL || dyn.control() == RedstoneControl.ACTIVE_WITHOUT_SIGNAL) {
+                            quads.addAll(rotationTranslation
+                                .andThen(new ColorQuadTransformer(null, dyn.redstoneChannel()))
+                                .process(modelOf(CONDUIT_IO_REDSTONE).getQuads(state, preRotation, rand, extraData, renderType)));
                         }
                     }
                 }
+            }
 
-                Optional<BlockState> facadeOpt = conduitBundle.getFacade(direction);
-                if (facadeOpt.isPresent()) {
-                    BlockState facade = facadeOpt.get();
-                    BakedModel facadeModel = Minecraft.getInstance().getBlockRenderer().getBlockModel(facade);
-                    List<BakedQuad> textureQuads = facadeModel.getQuads(state, preRotation, rand, ModelData.EMPTY, renderType);
+            Optional<BlockState> facadeOpt = conduitBundle.getFacade(direction);
+            if (facadeOpt.isPresent()) {
+                BlockState facade = facadeOpt.get();
+                BakedModel facadeModel = Minecraft.getInstance().getBlockRenderer().getBlockModel(facade);
+                List<BakedQuad> textureQuads = facadeModel.getQuads(state, preRotation, rand, ModelData.EMPTY, renderType);
 
-                    quads.addAll(rotation
-                        .andThen(new BlockColorQuadDataTransformer(pos, Minecraft.getInstance().level, facade))
-                        .andThen(new PaintingQuadTransformer(facade, renderType))
-                        .process(modelOf(CONDUIT_FACADE).getQuads(state, preRotation, rand, ModelData.EMPTY, renderType)));
-                }
+                quads.addAll(rotation
+                    .andThen(new BlockColorQuadDataTransformer(pos, Minecraft.getInstance().level, facade))
+                    .andThen(new PaintingQuadTransformer(facade, renderType))
+                    .process(modelOf(CONDUIT_FACADE).getQuads(state, preRotation, rand, ModelData.EMPTY, renderType)));
             }
+        }
 
-            var allTypes = conduitBundle.getTypes();
-            @Nullable Area box = null;
-            Map<IConduitType<?>, Integer> notRendered = new HashMap<>();
-            List<IConduitType<?>> rendered = new ArrayList<>();
-            for (int i = 0; i < allTypes.size(); i++) {
-                var type = allTypes.get(i);
-                @Nullable List<Vec3i> offsetsForType = offsets.get(type);
-                if (offsetsForType != null) {
-                    //all are pointing to the same xyz reference meaning that we can draw the core
-                    if (offsetsForType.stream().distinct().count() == 1) {
-                        rendered.add(type);
+        var allTypes = conduitBundle.getTypes();
+        @Nullable Area box = null;
+        Map<IConduitType<?>, Integer> notRendered = new HashMap<>();
+        List<IConduitType<?>> rendered = new ArrayList<>();
+        for (int i = 0; i < allTypes.size(); i++) {
+            var type = allTypes.get(i);
+            @Nullable List<Vec3i> offsetsForType = offsets.get(type);
+            if (offsetsForType != null) {
+                //all are pointing to the same xyz reference meaning that we can draw the core
+                if (offsetsForType.stream().distinct().count() == 1) {
+                    rendered.add(type);
+                } else {
+                    if (box == null) {
+                        box = new Area(offsetsForType.toArray(new Vec3i[0]));
                     } else {
-                        if (box == null) {
-                            box = new Area(offsetsForType.toArray(new Vec3i[0]));
-                        } else {
-                            offsetsForType.forEach(box::makeContain);
-                        }
+                        offsetsForType.forEach(box::makeContain);
                     }
-                } else {
-                    notRendered.put(type, i);
                 }
+            } else {
+                notRendered.put(type, i);
             }
+        }
 
-            Set<Vec3i> duplicateFinder = new HashSet<>();
-            //rendered have only one distinct pos, so I can safely assume get(0) is valid
-            List<Vec3i> duplicatePositions = rendered.stream().map(offsets::get).map(l -> l.get(0)).filter(n -> !duplicateFinder.add(n)).toList();
-            for (Vec3i duplicatePosition : duplicatePositions) {
-                if (box == null) {
-                    box = new Area(duplicatePosition);
-                } else {
-                    box.makeContain(duplicatePosition);
-                }
+        Set<Vec3i> duplicateFinder = new HashSet<>();
+        //rendered have only one distinct pos, so I can safely assume get(0) is valid
+        List<Vec3i> duplicatePositions = rendered.stream().map(offsets::get).map(l -> l.get(0)).filter(n -> !duplicateFinder.add(n)).toList();
+        for (Vec3i duplicatePosition : duplicatePositions) {
+            if (box == null) {
+                box = new Area(duplicatePosition);
+            } else {
+                box.makeContain(duplicatePosition);
             }
-            for (IConduitType<?> toRender : rendered) {
-                List<Vec3i> offsetsForType = offsets.get(toRender);
-                if (box == null || !box.contains(offsetsForType.get(0))) {
-                    quads.addAll(new ConduitTextureEmissiveQuadTransformer(sprite(toRender, conduitBundle.getNodeFor(toRender).getExtendedConduitData()), 0)
-                        .andThen(QuadTransformers.applying(translateTransformation(offsetsForType.get(0))))
-                        .process(modelOf(CONDUIT_CORE).getQuads(state, side, rand, extraData, renderType)));
-                }
+        }
+        for (IConduitType<?> toRender : rendered) {
+            List<Vec3i> offsetsForType = offsets.get(toRender);
+            if (box == null || !box.contains(offsetsForType.get(0))) {
+                quads.addAll(new ConduitTextureEmissiveQuadTransformer(sprite(toRender, conduitBundle.getExtendedData(toRender)), 0)
+                    .andThen(QuadTransformers.applying(translateTransformation(offsetsForType.get(0))))
+                    .process(modelOf(CONDUIT_CORE).getQuads(state, side, rand, extraData, renderType)));
             }
+        }
 
-            if (box != null) {
-                for (Map.Entry<IConduitType<?>, Integer> notRenderedEntry : notRendered.entrySet()) {
-                    Vec3i offset = OffsetHelper.translationFor(axis, OffsetHelper.offsetConduit(notRenderedEntry.getValue(), allTypes.size()));
-                    if (!box.contains(offset)) {
-                        quads.addAll(new ConduitTextureEmissiveQuadTransformer(
-                            sprite(notRenderedEntry.getKey(), conduitBundle.getNodeFor(notRenderedEntry.getKey()).getExtendedConduitData()), 0)
-                            .andThen(QuadTransformers.applying(translateTransformation(offset)))
-                            .process(modelOf(CONDUIT_CORE).getQuads(state, side, rand, extraData, renderType)));
-                    }
-                }
-
-                quads.addAll(new BoxTextureQuadTransformer(box.size())
-                    .andThen(QuadTransformers.applying(translateTransformation(box.getMin())))
-                    .process(modelOf(BOX).getQuads(state, side, rand, extraData, renderType)));
-            } else {
-                for (Map.Entry<IConduitType<?>, Integer> notRenderedEntry : notRendered.entrySet()) {
+        if (box != null) {
+            for (Map.Entry<IConduitType<?>, Integer> notRenderedEntry : notRendered.entrySet()) {
+                Vec3i offset = OffsetHelper.translationFor(axis, OffsetHelper.offsetConduit(notRenderedEntry.getValue(), allTypes.size()));
+                if (!box.contains(offset)) {
                     quads.addAll(new ConduitTextureEmissiveQuadTransformer(
-                        sprite(notRenderedEntry.getKey(), conduitBundle.getNodeFor(notRenderedEntry.getKey()).getExtendedConduitData()), 0)
-                        .andThen(QuadTransformers.applying(translateTransformation(
-                            OffsetHelper.translationFor(axis, OffsetHelper.offsetConduit(notRenderedEntry.getValue(), allTypes.size())))))
+                        sprite(notRenderedEntry.getKey(), conduitBundle.getExtendedData(notRenderedEntry.getKey())), 0)
+                        .andThen(QuadTransformers.applying(translateTransformation(offset)))
                         .process(modelOf(CONDUIT_CORE).getQuads(state, side, rand, extraData, renderType)));
                 }
             }
+
+            quads.addAll(new BoxTextureQuadTransformer(box.size())
+                .andThen(QuadTransformers.applying(translateTransformation(box.getMin())))
+                .process(modelOf(BOX).getQuads(state, side, rand, extraData, renderType)));
+        } else {
+            for (Map.Entry<IConduitType<?>, Integer> notRenderedEntry : notRendered.entrySet()) {
+                quads.addAll(new ConduitTextureEmissiveQuadTransformer(
+                    sprite(notRenderedEntry.getKey(), conduitBundle.getExtendedData(notRenderedEntry.getKey())), 0)
+                    .andThen(QuadTransformers.applying(translateTransformation(
+                        OffsetHelper.translationFor(axis, OffsetHelper.offsetConduit(notRenderedEntry.getValue(), allTypes.size())))))
+                    .process(modelOf(CONDUIT_CORE).getQuads(state, side, rand, extraData, renderType)));
+            }
         }
 
         return quads;
@@ -279,6 +317,9 @@ public class ConduitBlockModel implements IDynamicBakedModel {
         return Minecraft.getInstance().getModelManager().getAtlas(InventoryMenu.BLOCK_ATLAS).getSprite(type.getTexture(data.cast()));
     }
 
+    private record QuadCacheKey(ConduitBundleRenderState renderState, @Nullable Direction side, @Nullable RenderType renderType) {
+    }
+
     private static boolean isMissingModel(BakedModel model) {
         return model == Minecraft.getInstance().getModelManager().getMissingModel();
     }
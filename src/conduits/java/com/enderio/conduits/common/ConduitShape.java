@@ -2,13 +2,18 @@ package com.enderio.conduits.common;
 
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.conduits.common.blockentity.ConduitBundle;
+import com.enderio.conduits.common.blockentity.ConduitConnection;
 import com.enderio.conduits.common.blockentity.OffsetHelper;
 import com.enderio.conduits.common.blockentity.connection.DynamicConnectionState;
+import com.enderio.conduits.common.blockentity.connection.IConnectionState;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.Vec3i;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.phys.shapes.BooleanOp;
@@ -18,75 +23,76 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
+import static com.enderio.conduits.common.blockentity.ConduitBundle.MAX_CONDUIT_TYPES;
+
+/**
+ * The shapes of a conduit bundle.
+ * Bundles with the same types and connections have the same shapes, so they are computed once and shared through a global cache.
+ */
 public class ConduitShape {
-    private final Map<IConduitType<?>, VoxelShape> conduitShapes = new HashMap<>();
-    private final Map<Direction, VoxelShape> directionShapes = new HashMap<>();
     private static final VoxelShape CONNECTOR = Block.box(2.5f, 2.5, 15f, 13.5f, 13.5f, 16f);
     private static final VoxelShape CONNECTION = Block.box(6.5f, 6.5f, 9.5, 9.5f, 9.5f, 16);
     private static final VoxelShape CORE = Block.box(6.5f, 6.5f, 6.5f, 9.5f, 9.5f, 9.5f);
-    private VoxelShape totalShape = CORE;
+
+    private static final int SHAPE_CACHE_SIZE = 1024;
+    private static final Cache<ShapeKey, BundleShapes> SHAPE_CACHE = CacheBuilder.newBuilder().maximumSize(SHAPE_CACHE_SIZE).build();
+
+    private BundleShapes shapes = new BundleShapes(Map.of(), Map.of(), CORE);
 
     public ConduitShape() {
 
     }
 
     public void updateConduit(ConduitBundle bundle) {
-        this.conduitShapes.clear();
-        this.directionShapes.clear();
-        for (IConduitType<?> type : bundle.getTypes()) {
-            updateShapeForConduit(bundle, type);
+        ShapeKey key = ShapeKey.of(bundle);
+        BundleShapes cached = SHAPE_CACHE.getIfPresent(key);
+        if (cached == null) {
+            cached = createShapes(bundle);
+            SHAPE_CACHE.put(key, cached);
         }
-        updateTotalShape();
+
+        this.shapes = cached;
     }
 
     public VoxelShape getShapeFromHit(BlockPos pos, HitResult result) {
-        return Optional.ofNullable(this.conduitShapes.get(getConduit(pos, result))).orElse(Shapes.empty());
+        return Optional.ofNullable(shapes.conduitShapes.get(getConduit(pos, result))).orElse(Shapes.empty());
     }
 
     @Nullable
     public IConduitType<?> getConduit(BlockPos pos, HitResult result) {
-        return getLookUpValue(conduitShapes, pos, result);
+        return shapes.conduitLookup.find(result.getLocation().subtract(pos.getX(), pos.getY(), pos.getZ()));
     }
 
     @Nullable
     public Direction getDirection(BlockPos pos, HitResult result) {
-        return getLookUpValue(directionShapes, pos, result);
+        return shapes.directionLookup.find(result.getLocation().subtract(pos.getX(), pos.getY(), pos.getZ()));
     }
 
-    @Nullable
-    private <T> T getLookUpValue(Map<T, VoxelShape> shapes, BlockPos pos, HitResult result) {
-        for (Map.Entry<T, VoxelShape> entry : shapes.entrySet()) {
-            Vec3 vec3 = result.getLocation().subtract(pos.getX(), pos.getY(), pos.getZ());
-            Optional<Vec3> point = entry.getValue().closestPointTo(vec3);
-            if (point.isEmpty()) {
-                continue;
-            }
+    public VoxelShape getTotalShape() {
+        return shapes.totalShape;
+    }
 
-            if (point.get().closerThan(vec3, Mth.EPSILON)) { // can't be 0 due to double
-                return entry.getKey();
-            }
+    private static BundleShapes createShapes(ConduitBundle bundle) {
+        Map<IConduitType<?>, VoxelShape> conduitShapes = new HashMap<>();
+        Map<Direction, VoxelShape> directionShapes = new HashMap<>();
+        for (IConduitType<?> type : bundle.getTypes()) {
+            updateShapeForConduit(bundle, type, conduitShapes, directionShapes);
         }
 
-        return null;
-    }
-
-    private void updateTotalShape() {
-        this.totalShape = Shapes.empty();
-        this.conduitShapes.values().forEach(s -> this.totalShape = Shapes.joinUnoptimized(this.totalShape, s, BooleanOp.OR));
-        totalShape.optimize();
-    }
+        VoxelShape totalShape = Shapes.empty();
+        for (VoxelShape conduitShape : conduitShapes.values()) {
+            totalShape = Shapes.joinUnoptimized(totalShape, conduitShape, BooleanOp.OR);
+        }
 
-    public VoxelShape getTotalShape() {
-        return this.totalShape;
+        return new BundleShapes(conduitShapes, directionShapes, totalShape.optimize());
     }
 
-    private void updateShapeForConduit(ConduitBundle conduitBundle, IConduitType<?> conduitType) {
+    private static void updateShapeForConduit(ConduitBundle conduitBundle, IConduitType<?> conduitType, Map<IConduitType<?>, VoxelShape> conduitShapes,
+        Map<Direction, VoxelShape> directionShapes) {
         VoxelShape conduitShape = Shapes.empty();
         Direction.Axis axis = OffsetHelper.findMainAxis(conduitBundle);
         Map<IConduitType<?>, List<Vec3i>> offsets = new HashMap<>();
@@ -157,6 +163,82 @@ public class ConduitShape {
         conduitShapes.put(conduitType, conduitShape.optimize());
     }
 
+    private record BundleShapes(Map<IConduitType<?>, VoxelShape> conduitShapes, Map<Direction, VoxelShape> directionShapes, VoxelShape totalShape,
+        ShapeLookup<IConduitType<?>> conduitLookup, ShapeLookup<Direction> directionLookup) {
+
+        private BundleShapes(Map<IConduitType<?>, VoxelShape> conduitShapes, Map<Direction, VoxelShape> directionShapes, VoxelShape totalShape) {
+            this(conduitShapes, directionShapes, totalShape, new ShapeLookup<>(conduitShapes), new ShapeLookup<>(directionShapes));
+        }
+    }
+
+    /**
+     * The types and the connection states of all directions, which is all the shapes depend on.
+     * Each direction packs one bit per type index for connected and one for having a connector.
+     */
+    private record ShapeKey(List<IConduitType<?>> types, long lowerDirections, long upperDirections) {
+
+        private static ShapeKey of(ConduitBundle bundle) {
+            long[] directions = new long[2];
+            for (Direction direction : Direction.values()) {
+                ConduitConnection connection = bundle.getConnection(direction);
+                long state = 0;
+                for (int i = 0; i < bundle.getTypes().size(); i++) {
+                    IConnectionState connectionState = connection.getConnectionState(i);
+                    if (connectionState.isConnection()) {
+                        state |= 1L << i;
+                    }
+                    if (connectionState instanceof DynamicConnectionState) {
+                        state |= 1L << (MAX_CONDUIT_TYPES + i);
+                    }
+                }
+
+                int shift = direction.ordinal() % 3 * 2 * MAX_CONDUIT_TYPES;
+                directions[direction.ordinal() / 3] |= state << shift;
+            }
+
+            return new ShapeKey(List.copyOf(bundle.getTypes()), directions[0], directions[1]);
+        }
+    }
+
+    /**
+     * Finds the key whose shape contains a point, by checking the bounds of each shape before its boxes.
+     */
+    private static class ShapeLookup<T> {
+        private final List<T> keys = new ArrayList<>();
+        private final List<AABB> bounds = new ArrayList<>();
+        private final List<List<AABB>> boxes = new ArrayList<>();
+
+        private ShapeLookup(Map<T, VoxelShape> shapes) {
+            for (Map.Entry<T, VoxelShape> entry : shapes.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    continue;
+                }
+
+                keys.add(entry.getKey());
+                // can't be exact due to double
+                bounds.add(entry.getValue().bounds().inflate(Mth.EPSILON));
+                boxes.add(entry.getValue().toAabbs().stream().map(box -> box.inflate(Mth.EPSILON)).toList());
+            }
+        }
+
+        @Nullable
+        private T find(Vec3 point) {
+            for (int i = 0; i < keys.size(); i++) {
+                if (!bounds.get(i).contains(point)) {
+                    continue;
+                }
+
+                for (AABB box : boxes.get(i)) {
+                    if (box.contains(point)) {
+                        return keys.get(i);
+                    }
+                }
+            }
+
+            return null;
+        }
+    }
+
     /**
      * Rotates a VoxelShape around the center to the specified Direction, Origin is SOUTH
      *
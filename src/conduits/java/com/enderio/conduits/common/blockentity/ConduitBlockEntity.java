@@ -5,14 +5,17 @@ import com.enderio.api.conduit.IConduitMenuData;
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.IExtendedConduitData;
 import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
 import com.enderio.conduits.ConduitNBTKeys;
 import com.enderio.conduits.common.ConduitShape;
 import com.enderio.conduits.common.blockentity.connection.DynamicConnectionState;
 import com.enderio.conduits.common.blockentity.connection.IConnectionState;
 import com.enderio.conduits.common.blockentity.connection.StaticConnectionStates;
 import com.enderio.conduits.common.menu.ConduitMenu;
+import com.enderio.conduits.common.network.C2SRequestConduitBundleSync;
 import com.enderio.conduits.common.network.ConduitSavedData;
 import com.enderio.core.common.blockentity.EnderBlockEntity;
+import com.enderio.core.common.network.CoreNetwork;
 import dev.gigaherz.graph3.Graph;
 import dev.gigaherz.graph3.GraphObject;
 import dev.gigaherz.graph3.Mergeable;
@@ -57,13 +60,14 @@ import java.util.stream.Collectors;
 
 public class ConduitBlockEntity extends EnderBlockEntity {
 
-    public static final ModelProperty<ConduitBundle> BUNDLE_MODEL_PROPERTY = new ModelProperty<>();
+    public static final ModelProperty<ConduitBundleRenderState> BUNDLE_MODEL_PROPERTY = new ModelProperty<>();
     public static final ModelProperty<BlockPos> POS = new ModelProperty<>();
 
     private final ConduitShape shape = new ConduitShape();
 
     private final ConduitBundle bundle;
-    @UseOnly(LogicalSide.CLIENT) private ConduitBundle clientBundle;
+    private final ConduitBundleNetworkDataSlot bundleDataSlot;
+    @UseOnly(LogicalSide.CLIENT) @Nullable private ConduitBundleRenderState renderState;
 
     private UpdateState checkConnection = UpdateState.NONE;
 
@@ -73,15 +77,25 @@ public class ConduitBlockEntity extends EnderBlockEntity {
     public ConduitBlockEntity(BlockEntityType<?> type, BlockPos worldPosition, BlockState blockState) {
         super(type, worldPosition, blockState);
         bundle = new ConduitBundle(this::scheduleTick, worldPosition);
-        clientBundle = bundle.deepCopy();
 
-        addDataSlot(new ConduitBundleNetworkDataSlot(this::getBundle));
+        bundleDataSlot = new ConduitBundleNetworkDataSlot(this::getBundle, () -> CoreNetwork.sendToServer(new C2SRequestConduitBundleSync(getBlockPos())));
+        addDataSlot(bundleDataSlot);
         addAfterSyncRunnable(this::updateClient);
     }
 
     public void updateClient() {
-        clientBundle = bundle.deepCopy();
         updateShape();
+        if (level == null || !level.isClientSide()) {
+            return;
+        }
+
+        // Only remesh if the bundle renders differently
+        ConduitBundleRenderState previous = renderState;
+        renderState = ConduitBundleRenderState.of(bundle, previous);
+        if (renderState == previous) {
+            return;
+        }
+
         requestModelDataUpdate();
         level.setBlocksDirty(getBlockPos(), Blocks.AIR.defaultBlockState(), getBlockState());
     }
@@ -105,9 +119,21 @@ public class ConduitBlockEntity extends EnderBlockEntity {
         updateConnectionToData(conduitType);
     }
 
+    /**
+     * Sends the whole bundle to the clients with the next update, after a client couldn't apply an update.
+     */
+    @UseOnly(LogicalSide.SERVER)
+    public void requestFullBundleSync() {
+        bundleDataSlot.requestFullUpdate();
+    }
+
     @UseOnly(LogicalSide.SERVER)
     public void handleExtendedDataUpdate(IConduitType<?> conduitType, CompoundTag compoundTag) {
-        getBundle().getNodeFor(conduitType).getExtendedConduitData().deserializeNBT(compoundTag);
+        NodeIdentifier<?> node = getBundle().getNodeFor(conduitType);
+        node.getExtendedConduitData().deserializeNBT(compoundTag);
+        node.markDirty();
+        // Priorities are part of the item routing table
+        IOEndpointIndex.invalidate(node.getGraph());
     }
 
     // endregion
@@ -122,16 +148,14 @@ public class ConduitBlockEntity extends EnderBlockEntity {
         if (level instanceof ServerLevel serverLevel) {
             sync();
             bundle.onLoad(level, getBlockPos());
+            for (IConduitType<?> type : bundle.getTypes()) {
+                bundle.getNodeFor(type).setLoaded(true);
+            }
             for (var entry: lazyNodes.entrySet()) {
                 NodeIdentifier<?> node = entry.getValue();
                 for (Direction dir : Direction.values()) {
                     tryConnectTo(dir, entry.getKey(), false, false).ifPresent(otherNode -> Graph.connect(node, otherNode));
                 }
-                for (GraphObject<Mergeable.Dummy> object : node.getGraph().getObjects()) {
-                    if (object instanceof NodeIdentifier<?> otherNode) {
-                        node.getExtendedConduitData().onConnectTo(otherNode.getExtendedConduitData().cast());
-                    }
-                }
                 ConduitSavedData.addPotentialGraph(entry.getKey(), Objects.requireNonNull(node.getGraph()), serverLevel);
             }
         }
@@ -153,6 +177,7 @@ public class ConduitBlockEntity extends EnderBlockEntity {
             for (IConduitType<?> type : bundle.getTypes()) {
                 NodeIdentifier<?> node = bundle.getNodeFor(type);
                 node.getExtendedConduitData().onRemoved(type, level, getBlockPos());
+                node.setLoaded(false);
                 savedData.putUnloadedNodeIdentifier(type, this.worldPosition, node);
             }
         }
@@ -168,6 +193,18 @@ public class ConduitBlockEntity extends EnderBlockEntity {
         }
     }
 
+    /**
+     * Drop cached neighbouring capabilities of all nodes, so newly placed neighbours are picked up by the tickers.
+     */
+    public void markCapabilityCacheDirty() {
+        for (IConduitType<?> type : bundle.getTypes()) {
+            NodeIdentifier<?> node = bundle.getNodeForTypeExact(type);
+            if (node != null) {
+                node.invalidateNeighbouringCapabilities();
+            }
+        }
+    }
+
     public void updateConnections(Level level, BlockPos pos, @Nullable BlockPos fromPos, boolean shouldActivate) {
         for (Direction direction: Direction.values()) {
             if (fromPos == null || !(level.getBlockEntity(fromPos) instanceof ConduitBlockEntity)) {
@@ -222,7 +259,11 @@ public class ConduitBlockEntity extends EnderBlockEntity {
 
     @Override
     public ModelData getModelData() {
-        return ModelData.builder().with(BUNDLE_MODEL_PROPERTY, clientBundle).with(POS, worldPosition).build();
+        if (renderState == null) {
+            renderState = ConduitBundleRenderState.of(bundle, null);
+        }
+
+        return ModelData.builder().with(BUNDLE_MODEL_PROPERTY, renderState).with(POS, worldPosition).build();
     }
 
     public boolean hasType(IConduitType<?> type) {
@@ -240,11 +281,7 @@ public class ConduitBlockEntity extends EnderBlockEntity {
             if (level instanceof ServerLevel serverLevel) {
                 NodeIdentifier<?> thisNode = Objects.requireNonNull(bundle.getNodeForTypeExact(type), "no node found in conduit");
                 Graph.integrate(thisNode, nodes);
-                for (GraphObject<Mergeable.Dummy> object : thisNode.getGraph().getObjects()) {
-                    if (object instanceof NodeIdentifier<?> node) {
-                        thisNode.getExtendedConduitData().onConnectTo(node.getExtendedConduitData().cast());
-                    }
-                }
+                thisNode.setLoaded(true);
                 ConduitSavedData.addPotentialGraph(type, Objects.requireNonNull(thisNode.getGraph()), serverLevel);
             }
             if (action instanceof RightClickAction.Upgrade upgrade && !upgrade.getNotInConduit().getTicker().canConnectTo(upgrade.getNotInConduit(), type)) {
@@ -263,23 +300,14 @@ public class ConduitBlockEntity extends EnderBlockEntity {
             conduit.updateConnectionToData(type);
             NodeIdentifier<?> firstNode = conduit.getBundle().getNodeFor(type);
             NodeIdentifier<?> secondNode = bundle.getNodeFor(type);
+            // Every new connection of the graph passes through here, shared state reaches the rest of the graph through its implementation
             firstNode.getExtendedConduitData().onConnectTo(secondNode.getExtendedConduitData().cast());
-            if (firstNode.getGraph() != null) {
-                for (GraphObject<Mergeable.Dummy> object : firstNode.getGraph().getObjects()) {
-                    if (object instanceof NodeIdentifier<?> node && node != firstNode) {
-                        firstNode.getExtendedConduitData().onConnectTo(node.getExtendedConduitData().cast());
-                    }
-                }
-            }
-            if (secondNode.getGraph() != null && firstNode.getGraph() != secondNode.getGraph()) {
-                for (GraphObject<Mergeable.Dummy> object : secondNode.getGraph().getObjects()) {
-                    if (object instanceof NodeIdentifier<?> node && node != secondNode) {
-                        secondNode.getExtendedConduitData().onConnectTo(node.getExtendedConduitData().cast());
-                    }
-                }
-            }
             if (shouldMergeGraph) {
                 Graph.connect(bundle.getNodeFor(type), conduit.bundle.getNodeFor(type));
+                bundle.getNodeFor(type).markDirty();
+                if (level instanceof ServerLevel serverLevel) {
+                    ConduitSavedData.addPotentialGraph(type, Objects.requireNonNull(bundle.getNodeFor(type).getGraph()), serverLevel);
+                }
             }
             return Optional.of(conduit.bundle.getNodeFor(type));
         } else if (type.getTicker().canConnectTo(level, getBlockPos(), dir)) {
@@ -291,13 +319,13 @@ public class ConduitBlockEntity extends EnderBlockEntity {
 
     public void updateConnectionToData(IConduitType<?> type) {
         if (!level.isClientSide) {
-            getBundle()
-                .getNodeFor(type)
-                .getExtendedConduitData()
+            NodeIdentifier<?> node = getBundle().getNodeFor(type);
+            node.getExtendedConduitData()
                 .updateConnection(Arrays
                     .stream(Direction.values())
                     .filter(streamDir -> getBundle().getConnection(streamDir).getConnectionState(type) != StaticConnectionStates.DISABLED)
                     .collect(Collectors.toSet()));
+            node.markDirty();
         }
     }
 
@@ -4,8 +4,10 @@ import com.enderio.api.UseOnly;
 import com.enderio.api.conduit.ConduitTypes;
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
 import com.enderio.conduits.client.ConduitClientSetup;
 import com.enderio.conduits.common.blockentity.connection.DynamicConnectionState;
+import com.enderio.conduits.common.network.ConduitSavedData;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
@@ -14,6 +16,7 @@ import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.StringTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
@@ -90,8 +93,11 @@ public final class ConduitBundle implements INBTSerializable<CompoundTag> {
             nodes.put(type, node);
             if (prevNode != null) {
                 prevNode.getExtendedConduitData().onRemoved(type, level, pos);
-                if (!level.isClientSide() && prevNode.getGraph() != null) {
-                    prevNode.getGraph().remove(prevNode);
+                if (level instanceof ServerLevel serverLevel && prevNode.getGraph() != null) {
+                    IOEndpointIndex.invalidate(prevNode.getGraph());
+                    prevNode.markDirty();
+                    prevNode.setLoaded(false);
+                    ConduitSavedData.removeNode(first.get(), prevNode, serverLevel);
                 }
             }
 
@@ -307,6 +313,35 @@ public final class ConduitBundle implements INBTSerializable<CompoundTag> {
 
     // endregion
 
+    // region Network
+
+    /**
+     * @return the data the client needs to render the type at the index
+     */
+    CompoundTag serializeRenderNBT(int typeIndex) {
+        NodeIdentifier<?> node = nodes.get(types.get(typeIndex));
+        return node != null ? node.getExtendedConduitData().serializeRenderNBT() : new CompoundTag();
+    }
+
+    @UseOnly(LogicalSide.CLIENT)
+    void deserializeRenderNBT(int typeIndex, CompoundTag nbt) {
+        NodeIdentifier<?> node = nodes.get(types.get(typeIndex));
+        if (node != null) {
+            node.getExtendedConduitData().deserializeNBT(nbt);
+        }
+    }
+
+    @UseOnly(LogicalSide.CLIENT)
+    void setFacadeFromNetwork(Direction direction, @Nullable BlockState facade) {
+        if (facade != null) {
+            facadeTextures.put(direction, facade);
+        } else {
+            facadeTextures.remove(direction);
+        }
+    }
+
+    // endregion
+
     public ConduitConnection getConnection(Direction direction) {
         return connections.get(direction);
     }
@@ -379,8 +414,11 @@ public final class ConduitBundle implements INBTSerializable<CompoundTag> {
     public void removeNodeFor(Level level, IConduitType<?> type) {
         NodeIdentifier<?> node = nodes.get(type);
         node.getExtendedConduitData().onRemoved(type, level, pos);
-        if (node.getGraph() != null) {
-            node.getGraph().remove(node);
+        if (level instanceof ServerLevel serverLevel && node.getGraph() != null) {
+            IOEndpointIndex.invalidate(node.getGraph());
+            node.markDirty();
+            node.setLoaded(false);
+            ConduitSavedData.removeNode(type, node, serverLevel);
         }
         nodes.remove(type);
         dataVersion++;
@@ -411,14 +449,4 @@ public final class ConduitBundle implements INBTSerializable<CompoundTag> {
     public void incrementDataVersion() {
         dataVersion++;
     }
-
-    @UseOnly(LogicalSide.CLIENT)
-    public ConduitBundle deepCopy() {
-        var bundle = new ConduitBundle(() -> {}, pos);
-        bundle.types.addAll(types);
-        connections.forEach((dir, connection) -> bundle.connections.put(dir, connection.deepCopy(bundle)));
-        bundle.facadeTextures.putAll(facadeTextures);
-        nodes.forEach((type, node) -> bundle.setNodeFor(type, new NodeIdentifier<>(node.getPos(), node.getExtendedConduitData().deepCopy())));
-        return bundle;
-    }
 }
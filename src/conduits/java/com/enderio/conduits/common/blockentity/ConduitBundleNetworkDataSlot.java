@@ -1,15 +1,59 @@
 package com.enderio.conduits.common.blockentity;
 
+import com.enderio.EnderIO;
+import com.enderio.api.conduit.IConduitType;
 import com.enderio.core.common.network.slot.NetworkDataSlot;
+import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
+import static com.enderio.conduits.common.blockentity.ConduitBundle.MAX_CONDUIT_TYPES;
+
+/**
+ * Syncs the bundle to the client.
+ * After the first update only what changed since the last update is sent: connection states, facades and render data per type.
+ * A change of the conduit types in the bundle shifts all indices, so it is sent as a full update.
+ * Deltas only contain absolute values, so clients that received a newer full state through the update tag can still apply them.
+ * A client that can't apply a delta anyway requests a full update, see {@link #requestFullUpdate()}.
+ */
 public class ConduitBundleNetworkDataSlot extends NetworkDataSlot<ConduitBundle> {
-    public ConduitBundleNetworkDataSlot(Supplier<ConduitBundle> getter) {
+
+    private static final byte FULL_UPDATE = 0;
+    private static final byte DELTA_UPDATE = 1;
+
+    private static final int DIRECTIONS = Direction.values().length;
+
+    // What was sent with the last update
+    private final List<IConduitType<?>> sentTypes = new ArrayList<>();
+    private final int[] sentConnections = new int[DIRECTIONS * MAX_CONDUIT_TYPES];
+    private final BlockState[] sentFacades = new BlockState[DIRECTIONS];
+    private final List<CompoundTag> sentRenderData = new ArrayList<>();
+    private boolean hasSent = false;
+    private int fullUpdateRequests = 0;
+
+    private final Runnable onOutOfSync;
+
+    /**
+     * @param onOutOfSync called on the client when a delta doesn't fit the bundle, it should request a full update from the server
+     */
+    public ConduitBundleNetworkDataSlot(Supplier<ConduitBundle> getter, Runnable onOutOfSync) {
         super(getter, (v) -> {});
+        this.onOutOfSync = onOutOfSync;
+    }
+
+    /**
+     * Sends the whole bundle with the next update, even if nothing changed.
+     */
+    public void requestFullUpdate() {
+        hasSent = false;
+        fullUpdateRequests++;
     }
 
     @Override
@@ -33,22 +77,133 @@ public class ConduitBundleNetworkDataSlot extends NetworkDataSlot<ConduitBundle>
 
     @Override
     protected int hashCode(ConduitBundle value) {
-        return value.getDataVersion();
+        // A requested full update has to be sent even if the bundle didn't change
+        return value.getDataVersion() + fullUpdateRequests;
     }
 
     @Override
     public void toBuffer(FriendlyByteBuf buf, ConduitBundle value) {
-        buf.writeNbt(value.serializeNBT());
+        if (!hasSent || !sentTypes.equals(value.getTypes())) {
+            buf.writeByte(FULL_UPDATE);
+            buf.writeNbt(value.serializeNBT());
+            snapshot(value);
+            return;
+        }
+
+        buf.writeByte(DELTA_UPDATE);
+        buf.writeByte(value.getTypes().size());
+
+        List<Integer> changedConnections = new ArrayList<>();
+        for (Direction direction : Direction.values()) {
+            ConduitConnection connection = value.getConnection(direction);
+            for (int typeIndex = 0; typeIndex < MAX_CONDUIT_TYPES; typeIndex++) {
+                int slot = direction.ordinal() * MAX_CONDUIT_TYPES + typeIndex;
+                int packed = connection.packConnectionState(typeIndex);
+                if (sentConnections[slot] != packed) {
+                    sentConnections[slot] = packed;
+                    changedConnections.add(slot);
+                }
+            }
+        }
+
+        buf.writeVarInt(changedConnections.size());
+        for (int slot : changedConnections) {
+            buf.writeByte(slot);
+            buf.writeVarInt(sentConnections[slot]);
+        }
+
+        List<Direction> changedFacades = new ArrayList<>();
+        for (Direction direction : Direction.values()) {
+            BlockState facade = value.getFacade(direction).orElse(null);
+            if (sentFacades[direction.ordinal()] != facade) {
+                sentFacades[direction.ordinal()] = facade;
+                changedFacades.add(direction);
+            }
+        }
+
+        buf.writeVarInt(changedFacades.size());
+        for (Direction direction : changedFacades) {
+            BlockState facade = sentFacades[direction.ordinal()];
+            buf.writeByte(direction.ordinal());
+            buf.writeVarInt(facade != null ? Block.getId(facade) + 1 : 0);
+        }
+
+        List<Integer> changedRenderData = new ArrayList<>();
+        for (int typeIndex = 0; typeIndex < value.getTypes().size(); typeIndex++) {
+            CompoundTag renderData = value.serializeRenderNBT(typeIndex);
+            if (!renderData.equals(sentRenderData.get(typeIndex))) {
+                sentRenderData.set(typeIndex, renderData);
+                changedRenderData.add(typeIndex);
+            }
+        }
+
+        buf.writeVarInt(changedRenderData.size());
+        for (int typeIndex : changedRenderData) {
+            buf.writeByte(typeIndex);
+            buf.writeNbt(sentRenderData.get(typeIndex));
+        }
     }
 
     @Override
     public ConduitBundle valueFromBuffer(FriendlyByteBuf buf) {
         try {
             ConduitBundle conduitBundle = getter.get();
-            conduitBundle.deserializeNBT(buf.readNbt());
+            if (buf.readByte() == FULL_UPDATE) {
+                conduitBundle.deserializeNBT(buf.readNbt());
+                return conduitBundle;
+            }
+
+            int typeCount = buf.readByte();
+            if (typeCount != conduitBundle.getTypes().size()) {
+                // Can't happen as long as the client applied all previous updates, so ask the server for the whole bundle.
+                EnderIO.LOGGER.warn("Received a conduit bundle delta for {} types, but the bundle has {}, requesting a full update", typeCount, conduitBundle.getTypes().size());
+                buf.skipBytes(buf.readableBytes());
+                onOutOfSync.run();
+                return conduitBundle;
+            }
+
+            int connectionCount = buf.readVarInt();
+            for (int i = 0; i < connectionCount; i++) {
+                int slot = buf.readByte();
+                conduitBundle.getConnection(Direction.values()[slot / MAX_CONDUIT_TYPES]).unpackConnectionState(slot % MAX_CONDUIT_TYPES, buf.readVarInt());
+            }
+
+            int facadeCount = buf.readVarInt();
+            for (int i = 0; i < facadeCount; i++) {
+                Direction direction = Direction.values()[buf.readByte()];
+                int id = buf.readVarInt();
+                conduitBundle.setFacadeFromNetwork(direction, id == 0 ? null : Block.stateById(id - 1));
+            }
+
+            int renderDataCount = buf.readVarInt();
+            for (int i = 0; i < renderDataCount; i++) {
+                int typeIndex = buf.readByte();
+                conduitBundle.deserializeRenderNBT(typeIndex, buf.readNbt());
+            }
+
             return conduitBundle;
         } catch (Exception e) {
             throw new IllegalStateException("Invalid conduit/compound tag buffer was passed over the network.");
         }
     }
+
+    private void snapshot(ConduitBundle value) {
+        sentTypes.clear();
+        sentTypes.addAll(value.getTypes());
+
+        for (Direction direction : Direction.values()) {
+            ConduitConnection connection = value.getConnection(direction);
+            for (int typeIndex = 0; typeIndex < MAX_CONDUIT_TYPES; typeIndex++) {
+                sentConnections[direction.ordinal() * MAX_CONDUIT_TYPES + typeIndex] = connection.packConnectionState(typeIndex);
+            }
+            sentFacades[direction.ordinal()] = value.getFacade(direction).orElse(null);
+        }
+
+        sentRenderData.clear();
+        for (int typeIndex = 0; typeIndex < value.getTypes().size(); typeIndex++) {
+            sentRenderData.add(value.serializeRenderNBT(typeIndex));
+        }
+
+        hasSent = true;
+    }
 }
@@ -0,0 +1,214 @@
+package com.enderio.conduits.common.blockentity;
+
+import com.enderio.api.conduit.IConduitType;
+import com.enderio.api.conduit.IExtendedConduitData;
+import com.enderio.conduits.common.blockentity.connection.DynamicConnectionState;
+import com.enderio.conduits.common.blockentity.connection.IConnectionState;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable view of everything the conduit model renders of a {@link ConduitBundle}.
+ * A new state is created from the previous one and shares every part that did not change with it, if nothing changed the previous state is returned as is.
+ * Two states render the same if they are equal, {@link #getRenderKey()} is precomputed so unequal states are usually told apart without comparing them.
+ */
+public final class ConduitBundleRenderState {
+
+    private static final int DIRECTIONS = Direction.values().length;
+
+    private final List<IConduitType<?>> types;
+    private final ConnectionRenderState[] connections;
+    private final BlockState[] facades;
+    private final IExtendedConduitData<?>[] extendedData;
+    private final CompoundTag[] renderData;
+    private final int renderKey;
+
+    private ConduitBundleRenderState(List<IConduitType<?>> types, ConnectionRenderState[] connections, BlockState[] facades,
+        IExtendedConduitData<?>[] extendedData, CompoundTag[] renderData) {
+        this.types = types;
+        this.connections = connections;
+        this.facades = facades;
+        this.extendedData = extendedData;
+        this.renderData = renderData;
+
+        int key = types.hashCode();
+        for (ConnectionRenderState connection : connections) {
+            key = 31 * key + Arrays.hashCode(connection.packedStates);
+        }
+        key = 31 * key + Arrays.hashCode(facades);
+        this.renderKey = 31 * key + Arrays.hashCode(renderData);
+    }
+
+    /**
+     * @param previous the state created for this bundle before, its unchanged parts are reused
+     * @return the render state of the bundle, previous if it renders the same
+     */
+    public static ConduitBundleRenderState of(ConduitBundle bundle, @Nullable ConduitBundleRenderState previous) {
+        boolean sameTypes = previous != null && previous.types.equals(bundle.getTypes());
+        List<IConduitType<?>> types = sameTypes ? previous.types : List.copyOf(bundle.getTypes());
+        boolean changed = !sameTypes;
+
+        ConnectionRenderState[] connections = new ConnectionRenderState[DIRECTIONS];
+        for (Direction direction : Direction.values()) {
+            ConduitConnection connection = bundle.getConnection(direction);
+            int[] packedStates = new int[types.size()];
+            for (int i = 0; i < packedStates.length; i++) {
+                packedStates[i] = connection.packConnectionState(i);
+            }
+
+            if (sameTypes && Arrays.equals(previous.connections[direction.ordinal()].packedStates, packedStates)) {
+                connections[direction.ordinal()] = previous.connections[direction.ordinal()];
+            } else {
+                IConnectionState[] states = new IConnectionState[types.size()];
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = connection.getConnectionState(i);
+                }
+
+                connections[direction.ordinal()] = new ConnectionRenderState(types, packedStates, states);
+                changed = true;
+            }
+        }
+
+        BlockState[] facades = new BlockState[DIRECTIONS];
+        for (Direction direction : Direction.values()) {
+            facades[direction.ordinal()] = bundle.getFacade(direction).orElse(null);
+        }
+
+        if (previous != null && Arrays.equals(previous.facades, facades)) {
+            facades = previous.facades;
+        } else {
+            changed = true;
+        }
+
+        IExtendedConduitData<?>[] extendedData = new IExtendedConduitData<?>[types.size()];
+        CompoundTag[] renderData = new CompoundTag[types.size()];
+        for (int i = 0; i < types.size(); i++) {
+            IExtendedConduitData<?> data = bundle.getNodeFor(types.get(i)).getExtendedConduitData();
+            renderData[i] = data.serializeRenderNBT();
+            if (sameTypes && renderData[i].equals(previous.renderData[i])) {
+                extendedData[i] = previous.extendedData[i];
+                renderData[i] = previous.renderData[i];
+            } else {
+                extendedData[i] = data.deepCopy();
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return previous;
+        }
+
+        return new ConduitBundleRenderState(types, connections, facades, extendedData, renderData);
+    }
+
+    public List<IConduitType<?>> getTypes() {
+        return types;
+    }
+
+    public ConnectionRenderState getConnection(Direction direction) {
+        return connections[direction.ordinal()];
+    }
+
+    public Optional<BlockState> getFacade(Direction direction) {
+        return Optional.ofNullable(facades[direction.ordinal()]);
+    }
+
+    public boolean hasFacades() {
+        for (BlockState facade : facades) {
+            if (facade != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the copy of the extended data of the type, for rendering only
+     */
+    public IExtendedConduitData<?> getExtendedData(IConduitType<?> type) {
+        return extendedData[indexOf(type)];
+    }
+
+    public int getRenderKey() {
+        return renderKey;
+    }
+
+    private int indexOf(IConduitType<?> type) {
+        int index = types.indexOf(type);
+        if (index < 0) {
+            throw new IllegalStateException("no conduit matching type in bundle");
+        }
+
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof ConduitBundleRenderState other) || renderKey != other.renderKey || !types.equals(other.types)) {
+            return false;
+        }
+
+        for (int i = 0; i < DIRECTIONS; i++) {
+            if (!Arrays.equals(connections[i].packedStates, other.connections[i].packedStates)) {
+                return false;
+            }
+        }
+
+        return Arrays.equals(facades, other.facades) && Arrays.equals(renderData, other.renderData);
+    }
+
+    @Override
+    public int hashCode() {
+        return renderKey;
+    }
+
+    public static final class ConnectionRenderState {
+        private final List<IConduitType<?>> types;
+        private final int[] packedStates;
+        private final IConnectionState[] states;
+        private final List<IConduitType<?>> connectedTypes;
+        private final boolean isEnd;
+
+        private ConnectionRenderState(List<IConduitType<?>> types, int[] packedStates, IConnectionState[] states) {
+            this.types = types;
+            this.packedStates = packedStates;
+            this.states = states;
+
+            List<IConduitType<?>> connected = new ArrayList<>();
+            boolean end = false;
+            for (int i = 0; i < states.length; i++) {
+                if (states[i].isConnection()) {
+                    connected.add(types.get(i));
+                }
+                end |= states[i] instanceof DynamicConnectionState;
+            }
+            this.connectedTypes = Collections.unmodifiableList(connected);
+            this.isEnd = end;
+        }
+
+        public boolean isEnd() {
+            return isEnd;
+        }
+
+        public List<IConduitType<?>> getConnectedTypes() {
+            return connectedTypes;
+        }
+
+        public IConnectionState getConnectionState(IConduitType<?> type) {
+            return states[types.indexOf(type)];
+        }
+    }
+}
@@ -163,13 +163,49 @@ public class ConduitConnection implements INBTSerializable<CompoundTag> {
 
     // endregion
 
-    public ConduitConnection deepCopy(ConduitBundle on) {
-        ConduitConnection connection = new ConduitConnection(on);
-        //connectionstates are not mutable (enum/record), so reference is fine
-        System.arraycopy(connectionStates, 0, connection.connectionStates, 0, MAX_CONDUIT_TYPES);
-        return connection;
+    // region Network
+
+    private static final int PACKED_DYNAMIC = 1 << 18;
+
+    /**
+     * @return the state at the index packed into an int, containing everything the client needs of it. Filters and upgrades are not included.
+     */
+    int packConnectionState(int index) {
+        if (connectionStates[index] instanceof DynamicConnectionState dynamicState) {
+            return PACKED_DYNAMIC
+                | (dynamicState.isInsert() ? 1 << 17 : 0)
+                | (dynamicState.isExtract() ? 1 << 16 : 0)
+                | dynamicState.insert().ordinal() << 12
+                | dynamicState.extract().ordinal() << 8
+                | dynamicState.control().ordinal() << 4
+                | dynamicState.redstoneChannel().ordinal();
+        }
+
+        return ((StaticConnectionStates) connectionStates[index]).ordinal();
     }
 
+    void unpackConnectionState(int index, int packed) {
+        if ((packed & PACKED_DYNAMIC) == 0) {
+            connectionStates[index] = StaticConnectionStates.values()[packed];
+            return;
+        }
+
+        Optional<DynamicConnectionState> dyn = Optional.ofNullable(connectionStates[index] instanceof DynamicConnectionState dynState ? dynState : null);
+        connectionStates[index] = new DynamicConnectionState(
+            (packed & 1 << 17) != 0,
+            ColorControl.values()[packed >> 12 & 0xF],
+            (packed & 1 << 16) != 0,
+            ColorControl.values()[packed >> 8 & 0xF],
+            RedstoneControl.values()[packed >> 4 & 0xF],
+            ColorControl.values()[packed & 0xF],
+            dyn.map(DynamicConnectionState::filterInsert).orElse(ItemStack.EMPTY),
+            dyn.map(DynamicConnectionState::filterExtract).orElse(ItemStack.EMPTY),
+            dyn.map(DynamicConnectionState::upgradeExtract).orElse(ItemStack.EMPTY)
+        );
+    }
+
+    // endregion
+
     public IConnectionState getConnectionState(int index) {
         return connectionStates[index];
     }
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class OffsetHelper {
 
@@ -108,9 +109,17 @@ public class OffsetHelper {
     }
 
     public static Direction.Axis findMainAxis(ConduitBundle bundle) {
+        return findMainAxis(dir -> !bundle.getConnection(dir).getConnectedTypes().isEmpty());
+    }
+
+    public static Direction.Axis findMainAxis(ConduitBundleRenderState renderState) {
+        return findMainAxis(dir -> !renderState.getConnection(dir).getConnectedTypes().isEmpty());
+    }
+
+    private static Direction.Axis findMainAxis(Predicate<Direction> isConnected) {
         List<Direction> connectedDirs = new ArrayList<>();
         for (Direction dir: Direction.values()) {
-            if (!bundle.getConnection(dir).getConnectedTypes().isEmpty()) {
+            if (isConnected.test(dir)) {
                 connectedDirs.add(dir);
             }
         }
@@ -35,6 +35,7 @@ import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.ClipContext;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.EntityBlock;
 import net.minecraft.world.level.block.SimpleWaterloggedBlock;
@@ -122,12 +123,21 @@ public class ConduitBlock extends Block implements EntityBlock, SimpleWaterlogge
     @Override
     public void neighborChanged(BlockState state, Level level, BlockPos pos, Block block, BlockPos fromPos, boolean isMoving) {
         if (level.getBlockEntity(pos) instanceof ConduitBlockEntity conduit) {
+            conduit.markCapabilityCacheDirty();
             conduit.updateConnections(level, pos, fromPos, true);
         }
 
         super.neighborChanged(state, level, pos, block, fromPos, isMoving);
     }
 
+    @Override
+    public void onNeighborChange(BlockState state, LevelReader level, BlockPos pos, BlockPos neighbor) {
+        super.onNeighborChange(state, level, pos, neighbor);
+        if (level.getBlockEntity(pos) instanceof ConduitBlockEntity conduit) {
+            conduit.markCapabilityCacheDirty();
+        }
+    }
+
     @Nullable
     @Override
     public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
@@ -0,0 +1,22 @@
+package com.enderio.conduits.common.config.common;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+
+public class ConduitsCommonConfig {
+    public final ForgeConfigSpec.IntValue TICK_BUDGET_MICROSECONDS;
+    public final ForgeConfigSpec.IntValue ITEMS_PER_OPERATION;
+
+    public ConduitsCommonConfig(ForgeConfigSpec.Builder builder) {
+        builder.push("ticking");
+            TICK_BUDGET_MICROSECONDS = builder
+                .comment("The time in microseconds all conduit networks of a level may use per tick. Networks that are left over are ticked the next tick instead. 0 disables the budget.")
+                .defineInRange("tickBudgetMicroseconds", 10000, 0, 50000);
+        builder.pop();
+
+        builder.push("items");
+            ITEMS_PER_OPERATION = builder
+                .comment("The number of items an item conduit extracts from one connection per operation.")
+                .defineInRange("itemsPerOperation", 4, 1, 64);
+        builder.pop();
+    }
+}
@@ -0,0 +1,68 @@
+package com.enderio.conduits.common.network;
+
+import com.enderio.conduits.common.blockentity.ConduitBlockEntity;
+import com.enderio.core.common.network.Packet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.Optional;
+
+/**
+ * Sent by a client that couldn't apply a conduit bundle delta, so the server sends the whole bundle with its next update.
+ */
+public class C2SRequestConduitBundleSync implements Packet {
+
+    private final BlockPos pos;
+
+    public C2SRequestConduitBundleSync(BlockPos pos) {
+        this.pos = pos;
+    }
+
+    public C2SRequestConduitBundleSync(FriendlyByteBuf buf) {
+        pos = buf.readBlockPos();
+    }
+
+    @Override
+    public boolean isValid(NetworkEvent.Context context) {
+        return context.getSender() != null;
+    }
+
+    @Override
+    public void handle(NetworkEvent.Context context) {
+        ServerLevel level = context.getSender().serverLevel();
+        if (!level.isLoaded(pos)) {
+            return;
+        }
+
+        BlockEntity be = level.getBlockEntity(pos);
+        if (be instanceof ConduitBlockEntity conduitBlockEntity) {
+            conduitBlockEntity.requestFullBundleSync();
+        }
+    }
+
+    protected void write(FriendlyByteBuf writeInto) {
+        writeInto.writeBlockPos(pos);
+    }
+
+    public static class Handler extends PacketHandler<C2SRequestConduitBundleSync> {
+
+        @Override
+        public C2SRequestConduitBundleSync fromNetwork(FriendlyByteBuf buf) {
+            return new C2SRequestConduitBundleSync(buf);
+        }
+
+        @Override
+        public void toNetwork(C2SRequestConduitBundleSync packet, FriendlyByteBuf buf) {
+            packet.write(buf);
+        }
+
+        @Override
+        public Optional<NetworkDirection> getDirection() {
+            return Optional.of(NetworkDirection.PLAY_TO_SERVER);
+        }
+    }
+}
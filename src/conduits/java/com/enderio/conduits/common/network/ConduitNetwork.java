@@ -6,6 +6,7 @@ public class ConduitNetwork {
     public static void register() {
         CoreNetwork.registerPacket(new C2SSetConduitConnectionState.Handler(), C2SSetConduitConnectionState.class);
         CoreNetwork.registerPacket(new C2SSetConduitExtendedData.Handler(), C2SSetConduitExtendedData.class);
+        CoreNetwork.registerPacket(new C2SRequestConduitBundleSync.Handler(), C2SRequestConduitBundleSync.class);
     }
 
 }
@@ -2,20 +2,30 @@ package com.enderio.conduits.common.network;
 
 import com.enderio.EnderIO;
 import com.enderio.api.conduit.ConduitTypes;
+import com.enderio.api.conduit.GraphChangeTracker;
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.IExtendedConduitData;
 import com.enderio.api.conduit.NodeIdentifier;
 import com.enderio.api.misc.ColorControl;
 import com.enderio.conduits.ConduitNBTKeys;
 import com.enderio.conduits.EIOConduits;
-import com.enderio.conduits.common.blockentity.ConduitBlockEntity;
 import com.enderio.conduits.common.init.EnderConduitTypes;
 import com.enderio.conduits.common.types.RedstoneExtendedData;
-import com.mojang.datafixers.util.Pair;
 import dev.gigaherz.graph3.Graph;
 import dev.gigaherz.graph3.GraphObject;
 import dev.gigaherz.graph3.Mergeable;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.IntTag;
 import net.minecraft.nbt.ListTag;
@@ -24,8 +34,10 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.saveddata.SavedData;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.ChunkEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import org.jetbrains.annotations.Nullable;
@@ -36,14 +48,31 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
 
 @Mod.EventBusSubscriber
 public class ConduitSavedData extends SavedData {
 
     private final Map<IConduitType<?>, List<Graph<Mergeable.Dummy>>> networks = new HashMap<>();
 
-    // Used to find the NodeIdentifier(s) of a conduit when it is loaded
-    private final Map<IConduitType<?>, Map<ChunkPos, Map<BlockPos, NodeIdentifier<?>>>> deserializedNodes = new HashMap<>();
+    // Used to find the NodeIdentifier(s) of a conduit when it is loaded, by chunk and then by position, both as longs
+    private final Map<IConduitType<?>, Long2ObjectMap<Long2ObjectMap<NodeIdentifier<?>>>> deserializedNodes = new HashMap<>();
+
+    // Chunks loaded during the last and the current tick, their remaining unloaded nodes don't have a conduit anymore
+    private LongSet loadedChunks = new LongOpenHashSet();
+    private LongSet chunksToClean = new LongOpenHashSet();
+
+    // The last saved form of each graph, reused while the graph is unchanged, see GraphChangeTracker
+    private final Map<Graph<Mergeable.Dummy>, CompoundTag> savedGraphs = new WeakHashMap<>();
+
+    private final ConduitTickScheduler scheduler = new ConduitTickScheduler();
+
+    // Set when graphs were merged or split, so networks may contain graphs that don't exist anymore
+    private boolean graphsChanged = false;
+
+    // Redstone conduit nodes by position, rebuilt after the redstone graphs changed
+    private final Long2ObjectMap<NodeIdentifier<?>> redstoneNodes = new Long2ObjectOpenHashMap<>();
+    private boolean redstoneNodesOutdated = true;
 
     public static ConduitSavedData get(ServerLevel level) {
         return level.getDataStorage().computeIfAbsent(nbt -> new ConduitSavedData(level, nbt), ConduitSavedData::new, "enderio_conduit_network");
@@ -61,8 +90,8 @@ public class ConduitSavedData extends SavedData {
     private static final String KEY_GRAPH_CONNECTIONS = "GraphConnections";
     private static final String KEY_DATA = "Data";
 
-    // Deserialization
-    private ConduitSavedData(Level level, CompoundTag nbt) {
+    // Deserialization, package-private for the game tests
+    ConduitSavedData(Level level, CompoundTag nbt) {
         ListTag graphsTag = nbt.getList(KEY_GRAPHS, Tag.TAG_COMPOUND);
         for (Tag tag : graphsTag) {
             CompoundTag typedGraphTag = (CompoundTag) tag;
@@ -78,7 +107,6 @@ public class ConduitSavedData extends SavedData {
                     ListTag graphConnectionsTag = graphTag.getList(KEY_GRAPH_CONNECTIONS, Tag.TAG_COMPOUND);
 
                     List<NodeIdentifier<?>> graphObjects = new ArrayList<>();
-                    List<Pair<GraphObject<Mergeable.Dummy>, GraphObject<Mergeable.Dummy>>> connections = new ArrayList<>();
 
                     for (Tag tag2 : graphObjectsTag) {
                         CompoundTag nodeTag = (CompoundTag) tag2;
@@ -89,16 +117,7 @@ public class ConduitSavedData extends SavedData {
                         putUnloadedNodeIdentifier(value, pos, node);
                     }
 
-                    for (Tag tag2 : graphConnectionsTag) {
-                        CompoundTag connectionTag = (CompoundTag) tag2;
-                        connections.add(new Pair<>(graphObjects.get(connectionTag.getInt("0")), graphObjects.get(connectionTag.getInt("1"))));
-                    }
-
-                    NodeIdentifier<?> graphObject = graphObjects.get(0);
-                    Graph.integrate(graphObject, List.of());
-                    merge(graphObject, connections);
-
-                    networks.computeIfAbsent(value, ignored -> new ArrayList<>()).add(graphObject.getGraph());
+                    networks.computeIfAbsent(value, ignored -> new ArrayList<>()).addAll(integrate(graphObjects, graphConnectionsTag));
                 }
             }
         }
@@ -128,6 +147,8 @@ public class ConduitSavedData extends SavedData {
     // Serialization
     @Override
     public CompoundTag save(CompoundTag nbt) {
+        pruneGraphs();
+
         ListTag graphsTag = new ListTag();
         for (IConduitType<?> type : networks.keySet()) {
             List<Graph<Mergeable.Dummy>> graphs = networks.get(type);
@@ -142,7 +163,15 @@ public class ConduitSavedData extends SavedData {
 
             for (Graph<Mergeable.Dummy> graph : graphs) {
                 if (!graph.getObjects().isEmpty()) {
-                    graphsForTypeTag.add(serializeGraph(graph));
+                    CompoundTag graphTag = savedGraphs.get(graph);
+                    if (GraphChangeTracker.consumeChanged(graph) || graphTag == null) {
+                        graphTag = serializeGraph(graph);
+                        savedGraphs.put(graph, graphTag);
+                    }
+                    if (type.getTicker().hasUnsavedState(graph)) {
+                        type.getTicker().writeUnsavedState(graph, getNodeData(graphTag));
+                    }
+                    graphsForTypeTag.add(graphTag);
                 }
             }
 
@@ -156,25 +185,73 @@ public class ConduitSavedData extends SavedData {
         return nbt;
     }
 
+    /**
+     * @return whether a graph changed, was added or was removed since the last save
+     */
     @Override
     public boolean isDirty() {
-        return true;
+        if (super.isDirty()) {
+            return true;
+        }
+
+        for (List<Graph<Mergeable.Dummy>> graphs : networks.values()) {
+            for (Graph<Mergeable.Dummy> graph : graphs) {
+                if (GraphChangeTracker.isChanged(graph) || !savedGraphs.containsKey(graph)) {
+                    return true;
+                }
+            }
+        }
+
+        for (var entry : networks.entrySet()) {
+            for (Graph<Mergeable.Dummy> graph : entry.getValue()) {
+                if (entry.getKey().getTicker().hasUnsavedState(graph)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static List<CompoundTag> getNodeData(CompoundTag graphTag) {
+        ListTag graphObjectsTag = graphTag.getList(KEY_GRAPH_OBJECTS, Tag.TAG_COMPOUND);
+        List<CompoundTag> nodeData = new ArrayList<>(graphObjectsTag.size());
+        for (int i = 0; i < graphObjectsTag.size(); i++) {
+            nodeData.add(graphObjectsTag.getCompound(i).getCompound(KEY_DATA));
+        }
+        return nodeData;
     }
 
     private static CompoundTag serializeGraph(Graph<Mergeable.Dummy> graph) {
         List<GraphObject<Mergeable.Dummy>> graphObjects = new ArrayList<>(graph.getObjects());
-        List<Pair<GraphObject<Mergeable.Dummy>, GraphObject<Mergeable.Dummy>>> connections = new ArrayList<>();
+        Reference2IntMap<GraphObject<Mergeable.Dummy>> indices = new Reference2IntOpenHashMap<>(graphObjects.size());
+        indices.defaultReturnValue(-1);
+        for (int i = 0; i < graphObjects.size(); i++) {
+            indices.put(graphObjects.get(i), i);
+        }
 
         CompoundTag graphTag = new CompoundTag();
 
         ListTag graphObjectsTag = new ListTag();
         ListTag graphConnectionsTag = new ListTag();
 
-        for (GraphObject<Mergeable.Dummy> graphObject : graphObjects) {
+        // Connections are stored once, no matter in which direction they were found
+        LongSet connections = new LongOpenHashSet();
+        for (int index = 0; index < graphObjects.size(); index++) {
+            GraphObject<Mergeable.Dummy> graphObject = graphObjects.get(index);
             for (GraphObject<Mergeable.Dummy> neighbour : graph.getNeighbours(graphObject)) {
-                Pair<GraphObject<Mergeable.Dummy>, GraphObject<Mergeable.Dummy>> connection = new Pair<>(graphObject, neighbour);
-                if (!containsConnection(connections, connection)) {
-                    connections.add(connection);
+                int neighbourIndex = indices.getInt(neighbour);
+                if (neighbourIndex < 0 || neighbourIndex == index) {
+                    continue;
+                }
+
+                int low = Math.min(index, neighbourIndex);
+                int high = Math.max(index, neighbourIndex);
+                if (connections.add((long) low << 32 | high)) {
+                    CompoundTag connectionTag = new CompoundTag();
+                    connectionTag.put("0", IntTag.valueOf(low));
+                    connectionTag.put("1", IntTag.valueOf(high));
+                    graphConnectionsTag.add(connectionTag);
                 }
             }
 
@@ -188,15 +265,6 @@ public class ConduitSavedData extends SavedData {
             }
         }
 
-        for (Pair<GraphObject<Mergeable.Dummy>, GraphObject<Mergeable.Dummy>> connection : connections) {
-            CompoundTag connectionTag = new CompoundTag();
-
-            connectionTag.put("0", IntTag.valueOf(graphObjects.indexOf(connection.getFirst())));
-            connectionTag.put("1", IntTag.valueOf(graphObjects.indexOf(connection.getSecond())));
-
-            graphConnectionsTag.add(connectionTag);
-        }
-
         graphTag.put(KEY_GRAPH_OBJECTS, graphObjectsTag);
         graphTag.put(KEY_GRAPH_CONNECTIONS, graphConnectionsTag);
 
@@ -205,40 +273,80 @@ public class ConduitSavedData extends SavedData {
 
     // endregion
 
-    private void merge(GraphObject<Mergeable.Dummy> object, List<Pair<GraphObject<Mergeable.Dummy>, GraphObject<Mergeable.Dummy>>> connections) {
-        var filteredConnections = connections.stream().filter(pair -> (pair.getFirst() == object || pair.getSecond() == object)).toList();
-        List<GraphObject<Mergeable.Dummy>> neighbors = filteredConnections
-            .stream()
-            .map(pair -> pair.getFirst() == object ? pair.getSecond() : pair.getFirst())
-            .toList();
+    /**
+     * Rebuilds the graph(s) of the loaded nodes in O(nodes + connections).
+     * Nodes are integrated breadth first, each one next to its neighbours that are already part of the graph, so graphs never have to be merged.
+     */
+    private static List<Graph<Mergeable.Dummy>> integrate(List<NodeIdentifier<?>> graphObjects, ListTag graphConnectionsTag) {
+        IntList[] adjacency = new IntList[graphObjects.size()];
+        for (int i = 0; i < adjacency.length; i++) {
+            adjacency[i] = new IntArrayList(2);
+        }
 
-        for (GraphObject<Mergeable.Dummy> neighbor : neighbors) {
-            Graph.connect(object, neighbor);
+        for (Tag tag : graphConnectionsTag) {
+            CompoundTag connectionTag = (CompoundTag) tag;
+            int first = connectionTag.getInt("0");
+            int second = connectionTag.getInt("1");
+            if (first != second && first >= 0 && second >= 0 && first < adjacency.length && second < adjacency.length) {
+                adjacency[first].add(second);
+                adjacency[second].add(first);
+            }
         }
 
-        connections = connections.stream().filter(v -> !filteredConnections.contains(v)).toList();
-        if (!connections.isEmpty()) {
-            merge(connections.get(0).getFirst(), connections);
+        List<Graph<Mergeable.Dummy>> graphs = new ArrayList<>();
+        boolean[] integrated = new boolean[graphObjects.size()];
+        IntArrayFIFOQueue queue = new IntArrayFIFOQueue();
+        for (int root = 0; root < graphObjects.size(); root++) {
+            if (integrated[root]) {
+                continue;
+            }
+
+            Graph.integrate(graphObjects.get(root), List.of());
+            integrated[root] = true;
+            queue.enqueue(root);
+
+            while (!queue.isEmpty()) {
+                int current = queue.dequeueInt();
+                for (int next : adjacency[current]) {
+                    if (integrated[next]) {
+                        continue;
+                    }
+
+                    List<GraphObject<Mergeable.Dummy>> neighbours = new ArrayList<>();
+                    for (int neighbour : adjacency[next]) {
+                        if (integrated[neighbour] && !neighbours.contains(graphObjects.get(neighbour))) {
+                            neighbours.add(graphObjects.get(neighbour));
+                        }
+                    }
+
+                    Graph.integrate(graphObjects.get(next), neighbours);
+                    integrated[next] = true;
+                    queue.enqueue(next);
+                }
+            }
+
+            graphs.add(graphObjects.get(root).getGraph());
         }
+
+        return graphs;
     }
 
     @Nullable
     public <T extends IExtendedConduitData<T>> NodeIdentifier<T> takeUnloadedNodeIdentifier(IConduitType<T> type, BlockPos pos) {
-        ChunkPos chunkPos = new ChunkPos(pos);
+        long chunkPos = ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
 
-        Map<ChunkPos, Map<BlockPos, NodeIdentifier<?>>> typeMap = deserializedNodes.get(type);
+        Long2ObjectMap<Long2ObjectMap<NodeIdentifier<?>>> typeMap = deserializedNodes.get(type);
         if (typeMap == null) {
             EnderIO.LOGGER.warn("Conduit data is missing!");
             return null;
         }
-        Map<BlockPos, NodeIdentifier<?>> chunkMap = typeMap.get(chunkPos);
+        Long2ObjectMap<NodeIdentifier<?>> chunkMap = typeMap.get(chunkPos);
         if (chunkMap == null) {
             EnderIO.LOGGER.warn("Conduit data is missing!");
             return null;
         }
-        NodeIdentifier<?> node = chunkMap.get(pos);
+        NodeIdentifier<?> node = chunkMap.remove(pos.asLong());
 
-        chunkMap.remove(pos);
         if (chunkMap.isEmpty()) {
             typeMap.remove(chunkPos);
         }
@@ -251,15 +359,44 @@ public class ConduitSavedData extends SavedData {
     }
 
     public void putUnloadedNodeIdentifier(IConduitType<?> type, BlockPos pos, NodeIdentifier<?> node) {
-        ChunkPos chunkPos = new ChunkPos(pos);
-        Map<ChunkPos, Map<BlockPos, NodeIdentifier<?>>> typeMap = deserializedNodes.computeIfAbsent(type, k -> new HashMap<>());
-        Map<BlockPos, NodeIdentifier<?>> chunkMap = typeMap.computeIfAbsent(chunkPos, k -> new HashMap<>());
-        chunkMap.put(pos, node);
+        long chunkPos = ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+        Long2ObjectMap<Long2ObjectMap<NodeIdentifier<?>>> typeMap = deserializedNodes.computeIfAbsent(type, k -> new Long2ObjectOpenHashMap<>());
+        Long2ObjectMap<NodeIdentifier<?>> chunkMap = typeMap.computeIfAbsent(chunkPos, k -> new Long2ObjectOpenHashMap<>());
+        chunkMap.put(pos.asLong(), node);
+    }
+
+    /**
+     * Removes the unloaded nodes of a loaded chunk, all conduits in it took their nodes when they were loaded.
+     * What is left belongs to conduits that are gone, e.g. because the chunk was replaced, so the nodes are also removed from their graphs.
+     */
+    private void removeStaleNodes(ServerLevel serverLevel, long chunkPos) {
+        if (!serverLevel.hasChunk(ChunkPos.getX(chunkPos), ChunkPos.getZ(chunkPos))) {
+            return;
+        }
+
+        for (var iterator = deserializedNodes.entrySet().iterator(); iterator.hasNext();) {
+            var entry = iterator.next();
+            Long2ObjectMap<NodeIdentifier<?>> chunkMap = entry.getValue().remove(chunkPos);
+            if (chunkMap == null) {
+                continue;
+            }
+
+            for (NodeIdentifier<?> node : chunkMap.values()) {
+                EnderIO.LOGGER.debug("Removing conduit node at {} without a conduit", node.getPos());
+                removeNode(entry.getKey(), node);
+            }
+
+            if (entry.getValue().isEmpty()) {
+                iterator.remove();
+            }
+        }
     }
 
-    private static boolean containsConnection(List<Pair<GraphObject<Mergeable.Dummy>, GraphObject<Mergeable.Dummy>>> connections,
-        Pair<GraphObject<Mergeable.Dummy>, GraphObject<Mergeable.Dummy>> connection) {
-        return connections.contains(connection) || connections.contains(connection.swap());
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel serverLevel && event.getChunk() instanceof LevelChunk chunk) {
+            get(serverLevel).loadedChunks.add(chunk.getPos().toLong());
+        }
     }
 
     @SubscribeEvent
@@ -274,44 +411,92 @@ public class ConduitSavedData extends SavedData {
     }
 
     private void tick(ServerLevel serverLevel) {
-        setDirty();
-        for (IConduitType<?> type : networks.keySet()) {
-            List<Graph<Mergeable.Dummy>> graphs = networks.get(type);
-            graphs.removeIf(graph -> graph.getObjects().isEmpty() || graph.getObjects().iterator().next().getGraph() != graph);
+        // Wait a tick after the chunk load, so all conduits in it surely took their nodes
+        if (!chunksToClean.isEmpty()) {
+            for (LongIterator iterator = chunksToClean.iterator(); iterator.hasNext();) {
+                removeStaleNodes(serverLevel, iterator.nextLong());
+            }
+            chunksToClean.clear();
         }
-        for (var entry : networks.entrySet()) {
-            for (Graph<Mergeable.Dummy> graph : entry.getValue()) {
-                if (serverLevel.getGameTime() % entry.getKey().getTicker().getTickRate() == ConduitTypes.getRegistry().getID(entry.getKey()) % entry
-                    .getKey()
-                    .getTicker()
-                    .getTickRate()) {
-                    entry.getKey().getTicker().tickGraph(entry.getKey(), graph, serverLevel, ConduitSavedData::isRedstoneActive);
+        LongSet chunks = chunksToClean;
+        chunksToClean = loadedChunks;
+        loadedChunks = chunks;
+
+        pruneGraphs();
+        scheduler.tick(serverLevel, networks, this::isRedstoneActive);
+    }
+
+    private boolean isRedstoneActive(ServerLevel serverLevel, BlockPos pos, ColorControl color) {
+        if (redstoneNodesOutdated) {
+            redstoneNodes.clear();
+            for (Graph<Mergeable.Dummy> graph : networks.getOrDefault(EnderConduitTypes.REDSTONE.get(), List.of())) {
+                for (GraphObject<Mergeable.Dummy> object : graph.getObjects()) {
+                    if (object instanceof NodeIdentifier<?> node) {
+                        redstoneNodes.put(node.getPos().asLong(), node);
+                    }
                 }
             }
+            redstoneNodesOutdated = false;
         }
+
+        NodeIdentifier<?> node = redstoneNodes.get(pos.asLong());
+        return node != null
+            && node.isLoaded()
+            && node.getExtendedConduitData() instanceof RedstoneExtendedData data
+            && data.isActive(color);
+    }
+
+    public static void addPotentialGraph(IConduitType<?> type, Graph<Mergeable.Dummy> graph, ServerLevel level) {
+        get(level).addPotentialGraph(type, graph);
+    }
+
+    /**
+     * Removes the node of a removed conduit from its graph and registers the graphs the removal split off.
+     */
+    public static void removeNode(IConduitType<?> type, NodeIdentifier<?> node, ServerLevel level) {
+        get(level).removeNode(type, node);
     }
 
-    private static boolean isRedstoneActive(ServerLevel serverLevel, BlockPos pos, ColorControl color) {
-        if (!serverLevel.isLoaded(pos) || !serverLevel.shouldTickBlocksAt(pos)) {
-            return false;
+    private void removeNode(IConduitType<?> type, NodeIdentifier<?> node) {
+        Graph<Mergeable.Dummy> graph = node.getGraph();
+        if (graph == null) {
+            return;
         }
 
-        if (!(serverLevel.getBlockEntity(pos) instanceof ConduitBlockEntity conduit)) {
-            return false;
+        List<GraphObject<Mergeable.Dummy>> neighbours = new ArrayList<>(graph.getNeighbours(node));
+        graph.remove(node);
+
+        // The neighbours end up in the graphs split off by the removal
+        for (GraphObject<Mergeable.Dummy> neighbour : neighbours) {
+            if (neighbour.getGraph() != null) {
+                addPotentialGraph(type, neighbour.getGraph());
+            }
         }
+        graphsChanged = true;
+    }
 
-        if (!conduit.getBundle().getTypes().contains(EnderConduitTypes.REDSTONE.get())) {
-            return false;
+    private void pruneGraphs() {
+        if (!graphsChanged) {
+            return;
         }
 
-        RedstoneExtendedData data = conduit.getBundle().getNodeFor(EnderConduitTypes.REDSTONE.get()).getExtendedConduitData().cast();
-        return data.isActive(color);
-    }
-    public static void addPotentialGraph(IConduitType<?> type, Graph<Mergeable.Dummy> graph, ServerLevel level) {
-        get(level).addPotentialGraph(type, graph);
+        for (IConduitType<?> type : networks.keySet()) {
+            List<Graph<Mergeable.Dummy>> graphs = networks.get(type);
+            if (graphs.removeIf(graph -> graph.getObjects().isEmpty() || graph.getObjects().iterator().next().getGraph() != graph)) {
+                setDirty();
+            }
+        }
+        graphsChanged = false;
     }
 
     private void addPotentialGraph(IConduitType<?> type, Graph<Mergeable.Dummy> graph) {
+        // Potential graphs are passed after their connections changed
+        GraphChangeTracker.markChanged(graph);
+        scheduler.invalidatePhase(graph);
+        graphsChanged = true;
+        if (type == EnderConduitTypes.REDSTONE.get()) {
+            redstoneNodesOutdated = true;
+        }
         if (!networks.computeIfAbsent(type, unused -> new ArrayList<>()).contains(graph)) {
             networks.get(type).add(graph);
         }
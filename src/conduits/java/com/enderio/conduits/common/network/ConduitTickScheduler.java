@@ -0,0 +1,122 @@
+package com.enderio.conduits.common.network;
+
+import com.enderio.EnderIO;
+import com.enderio.api.conduit.ConduitTypes;
+import com.enderio.api.conduit.IConduitType;
+import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.misc.ColorControl;
+import com.enderio.conduits.common.config.ConduitsConfig;
+import com.enderio.conduits.common.profiling.ConduitTickProfiler;
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.GraphObject;
+import dev.gigaherz.graph3.Mergeable;
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import org.apache.commons.lang3.function.TriFunction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Decides which conduit graphs tick in a game tick.
+ * Every graph ticks in its own phase of its ticker's tick rate, so graphs of a type don't all tick in the same game tick.
+ * The phase is derived from the type and the lowest node position of the graph, so it survives restarts and only moves when that node changes.
+ * Graphs that don't fit into the configured time budget are deferred to the next tick.
+ */
+class ConduitTickScheduler {
+
+    private static final int REPORT_INTERVAL = 1200;
+
+    private final Queue<ScheduledGraph> deferred = new ArrayDeque<>();
+    private final Set<Graph<Mergeable.Dummy>> deferredGraphs = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Graph<Mergeable.Dummy>, Integer> phaseSeeds = new WeakHashMap<>();
+
+    private int saturatedTicks = 0;
+    private long deferredGraphTicks = 0;
+
+    void tick(ServerLevel level, Map<IConduitType<?>, List<Graph<Mergeable.Dummy>>> networks,
+        TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
+        long budget = ConduitsConfig.COMMON.TICK_BUDGET_MICROSECONDS.get() * 1000L;
+        long start = System.nanoTime();
+
+        List<ScheduledGraph> work = new ArrayList<>(deferred);
+        deferred.clear();
+        for (var entry : networks.entrySet()) {
+            int tickRate = entry.getKey().getTicker().getTickRate();
+            for (Graph<Mergeable.Dummy> graph : entry.getValue()) {
+                if (level.getGameTime() % tickRate == getPhase(entry.getKey(), graph, tickRate) && !deferredGraphs.contains(graph)) {
+                    work.add(new ScheduledGraph(entry.getKey(), graph));
+                }
+            }
+        }
+        deferredGraphs.clear();
+
+        for (int i = 0; i < work.size(); i++) {
+            if (i > 0 && budget > 0 && System.nanoTime() - start > budget) {
+                for (int j = i; j < work.size(); j++) {
+                    deferred.add(work.get(j));
+                    deferredGraphs.add(work.get(j).graph());
+                }
+                deferredGraphTicks += work.size() - i;
+                saturatedTicks++;
+                break;
+            }
+
+            ScheduledGraph scheduled = work.get(i);
+            if (isAlive(scheduled.graph())) {
+                long graphStart = System.nanoTime();
+                ConduitTickProfiler.beginGraph();
+                scheduled.type().getTicker().tickGraph(scheduled.type(), scheduled.graph(), level, isRedstoneActive);
+                ConduitTickProfiler.endGraph(level, scheduled.type(), scheduled.graph(), System.nanoTime() - graphStart);
+            }
+        }
+
+        if (level.getGameTime() % REPORT_INTERVAL == 0 && saturatedTicks > 0) {
+            EnderIO.LOGGER.warn("Conduit tick budget of {}us was exceeded in {} of the last {} ticks in {}, {} conduit network ticks were deferred",
+                budget / 1000, saturatedTicks, REPORT_INTERVAL, level.dimension().location(), deferredGraphTicks);
+            saturatedTicks = 0;
+            deferredGraphTicks = 0;
+        }
+    }
+
+    /**
+     * Forgets the phase of a graph whose nodes changed, it is derived again the next time the graph is scheduled.
+     */
+    void invalidatePhase(Graph<Mergeable.Dummy> graph) {
+        phaseSeeds.remove(graph);
+    }
+
+    /**
+     * @return the game tick within the tick rate this graph ticks in
+     */
+    private int getPhase(IConduitType<?> type, Graph<Mergeable.Dummy> graph, int tickRate) {
+        return Math.floorMod(phaseSeeds.computeIfAbsent(graph, ignored -> getPhaseSeed(type, graph)), tickRate);
+    }
+
+    private static int getPhaseSeed(IConduitType<?> type, Graph<Mergeable.Dummy> graph) {
+        long lowestPos = Long.MAX_VALUE;
+        for (GraphObject<Mergeable.Dummy> object : graph.getObjects()) {
+            if (object instanceof NodeIdentifier<?> node) {
+                lowestPos = Math.min(lowestPos, node.getPos().asLong());
+            }
+        }
+
+        // Graphs of different types along the same conduits get different phases
+        return HashCommon.mix(31 * Objects.hashCode(ConduitTypes.getRegistry().getKey(type)) + Long.hashCode(lowestPos));
+    }
+
+    private static boolean isAlive(Graph<Mergeable.Dummy> graph) {
+        return !graph.getObjects().isEmpty() && graph.getObjects().iterator().next().getGraph() == graph;
+    }
+
+    private record ScheduledGraph(IConduitType<?> type, Graph<Mergeable.Dummy> graph) {}
+}
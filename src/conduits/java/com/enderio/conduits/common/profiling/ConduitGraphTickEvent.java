@@ -0,0 +1,59 @@
+package com.enderio.conduits.common.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded for every conduit graph tick while a flight recording with this event enabled is running.
+ */
+@Name(ConduitGraphTickEvent.NAME)
+@Label("Conduit Graph Tick")
+@Category({ "EnderIO", "Conduits" })
+@StackTrace(false)
+@Enabled(false)
+public class ConduitGraphTickEvent extends Event {
+
+    public static final String NAME = "enderio.ConduitGraphTick";
+
+    @Name("conduitType")
+    @Label("Conduit Type")
+    public String conduitType;
+
+    @Name("level")
+    @Label("Level")
+    public String level;
+
+    @Name("x")
+    @Label("X")
+    public int x;
+
+    @Name("y")
+    @Label("Y")
+    public int y;
+
+    @Name("z")
+    @Label("Z")
+    public int z;
+
+    @Name("tickTime")
+    @Label("Tick Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long tickTime;
+
+    @Name("nodes")
+    @Label("Nodes")
+    public int nodes;
+
+    @Name("endpoints")
+    @Label("Endpoints")
+    public int endpoints;
+
+    @Name("transfers")
+    @Label("Transfers")
+    public int transfers;
+}
@@ -0,0 +1,95 @@
+package com.enderio.conduits.common.profiling;
+
+import com.enderio.EnderIO;
+import com.enderio.api.conduit.ConduitTypes;
+import com.enderio.api.conduit.IConduitType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.ComponentUtils;
+import net.minecraft.network.chat.HoverEvent;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /enderio conduits profile [count]} prints the tick time of all conduit types and the most expensive graphs recorded by {@link ConduitTickProfiler}.
+ * {@code /enderio conduits profile reset} starts a new recording.
+ */
+@Mod.EventBusSubscriber(modid = EnderIO.MODID)
+public class ConduitProfileCommand {
+
+    private static final int DEFAULT_COUNT = 10;
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("enderio")
+            .then(Commands.literal("conduits")
+                .requires(source -> source.hasPermission(Commands.LEVEL_GAMEMASTERS))
+                .then(Commands.literal("profile")
+                    .executes(context -> printProfile(context.getSource(), DEFAULT_COUNT))
+                    .then(Commands.argument("count", IntegerArgumentType.integer(1, 100))
+                        .executes(context -> printProfile(context.getSource(), IntegerArgumentType.getInteger(context, "count"))))
+                    .then(Commands.literal("reset")
+                        .executes(context -> reset(context.getSource()))))));
+    }
+
+    private static int printProfile(CommandSourceStack source, int count) {
+        long seconds = ConduitTickProfiler.getRecordingTime() / 1_000_000_000L;
+        source.sendSuccess(() -> Component.literal("Conduit ticks of the last " + seconds + "s:").withStyle(ChatFormatting.GOLD), false);
+
+        List<Map.Entry<IConduitType<?>, ConduitTickProfiler.Stats>> types = new ArrayList<>(ConduitTickProfiler.getTypeStats().entrySet());
+        types.sort(Comparator.comparingLong((Map.Entry<IConduitType<?>, ConduitTickProfiler.Stats> entry) -> entry.getValue().getTotalTime()).reversed());
+        for (Map.Entry<IConduitType<?>, ConduitTickProfiler.Stats> entry : types) {
+            MutableComponent line = Component.literal(String.valueOf(ConduitTypes.getRegistry().getKey(entry.getKey())) + ": ")
+                .append(describe(entry.getValue()));
+            source.sendSuccess(() -> line, false);
+        }
+
+        List<ConduitTickProfiler.GraphStats> graphs = ConduitTickProfiler.getTopGraphs(count);
+        if (!graphs.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("Most expensive networks:").withStyle(ChatFormatting.GOLD), false);
+        }
+
+        for (int i = 0; i < graphs.size(); i++) {
+            ConduitTickProfiler.GraphStats graph = graphs.get(i);
+            MutableComponent line = Component.literal("#" + (i + 1) + " " + ConduitTypes.getRegistry().getKey(graph.getType()) + " in " + graph.getLevel().location());
+            BlockPos pos = graph.getPos();
+            if (pos != null) {
+                line.append(" at ").append(ComponentUtils.wrapInSquareBrackets(Component.translatable("chat.coordinates", pos.getX(), pos.getY(), pos.getZ()))
+                    .withStyle(style -> style
+                        .withColor(ChatFormatting.GREEN)
+                        .withClickEvent(new ClickEvent(ClickEvent.Action.SUGGEST_COMMAND,
+                            "/execute in " + graph.getLevel().location() + " run tp @s " + pos.getX() + " " + pos.getY() + " " + pos.getZ()))
+                        .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, Component.translatable("chat.coordinates.tooltip")))));
+            }
+
+            line.append(": ").append(describe(graph));
+            source.sendSuccess(() -> line, false);
+        }
+
+        return graphs.size();
+    }
+
+    private static Component describe(ConduitTickProfiler.Stats stats) {
+        return Component.literal(String.format("%d ticks, %.2fms total, %.1fus avg, %.1fus max, %d nodes, %d endpoints, %d transfers",
+            stats.getTicks(), stats.getTotalTime() / 1_000_000.0, stats.getAverageTime() / 1_000.0, stats.getMaxTime() / 1_000.0, stats.getAverageNodes(),
+            stats.getAverageEndpoints(), stats.getTransfers())).withStyle(ChatFormatting.GRAY);
+    }
+
+    private static int reset(CommandSourceStack source) {
+        ConduitTickProfiler.reset();
+        source.sendSuccess(() -> Component.literal("Conduit tick profile reset"), true);
+        return 1;
+    }
+}
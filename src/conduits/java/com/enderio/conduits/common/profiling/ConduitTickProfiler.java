@@ -0,0 +1,182 @@
+package com.enderio.conduits.common.profiling;
+
+import com.enderio.api.conduit.ConduitTypes;
+import com.enderio.api.conduit.IConduitType;
+import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.GraphObject;
+import dev.gigaherz.graph3.Mergeable;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Records how much tick time every conduit graph and every conduit type costs.
+ * Recording is always on and only costs a few map lookups per graph tick, it's read through {@link ConduitProfileCommand}.
+ * Every graph tick is also recorded as a {@link ConduitGraphTickEvent} for flight recordings.
+ * Only the server thread may call this.
+ */
+public final class ConduitTickProfiler {
+
+    private static final Map<IConduitType<?>, Stats> TYPE_STATS = new HashMap<>();
+    private static final Map<Graph<Mergeable.Dummy>, GraphStats> GRAPH_STATS = new WeakHashMap<>();
+
+    private static long recordingSince = System.nanoTime();
+    private static int transfers = 0;
+
+    private ConduitTickProfiler() {
+    }
+
+    /**
+     * Counts one successful transfer of the graph that is currently ticking.
+     */
+    public static void countTransfer() {
+        transfers++;
+    }
+
+    public static void beginGraph() {
+        transfers = 0;
+    }
+
+    public static void endGraph(ServerLevel level, IConduitType<?> type, Graph<Mergeable.Dummy> graph, long tickTime) {
+        int nodes = graph.getObjects().size();
+        // Only an index the tick built itself is read, graphs the ticker skipped don't get one just for the statistics
+        IOEndpointIndex index = IOEndpointIndex.getIfBuilt(graph);
+        int endpoints = index != null ? index.getEndpointCount() : 0;
+
+        TYPE_STATS.computeIfAbsent(type, ignored -> new Stats()).record(tickTime, nodes, endpoints, transfers);
+        GraphStats graphStats = GRAPH_STATS.computeIfAbsent(graph, ignored -> new GraphStats(type, level.dimension()));
+        graphStats.record(tickTime, nodes, endpoints, transfers);
+        if (graphStats.pos == null && nodes > 0) {
+            GraphObject<Mergeable.Dummy> object = graph.getObjects().iterator().next();
+            if (object instanceof NodeIdentifier<?> node) {
+                graphStats.pos = node.getPos();
+            }
+        }
+
+        ConduitGraphTickEvent event = new ConduitGraphTickEvent();
+        if (event.isEnabled()) {
+            event.conduitType = String.valueOf(ConduitTypes.getRegistry().getKey(type));
+            event.level = level.dimension().location().toString();
+            if (graphStats.pos != null) {
+                event.x = graphStats.pos.getX();
+                event.y = graphStats.pos.getY();
+                event.z = graphStats.pos.getZ();
+            }
+            event.tickTime = tickTime;
+            event.nodes = nodes;
+            event.endpoints = endpoints;
+            event.transfers = transfers;
+            event.commit();
+        }
+    }
+
+    public static void reset() {
+        TYPE_STATS.clear();
+        GRAPH_STATS.clear();
+        recordingSince = System.nanoTime();
+    }
+
+    /**
+     * @return how long stats have been recorded for, in nanoseconds
+     */
+    public static long getRecordingTime() {
+        return System.nanoTime() - recordingSince;
+    }
+
+    public static Map<IConduitType<?>, Stats> getTypeStats() {
+        return TYPE_STATS;
+    }
+
+    /**
+     * @return the graphs that cost the most tick time in total, most expensive first
+     */
+    public static List<GraphStats> getTopGraphs(int count) {
+        List<GraphStats> graphs = new ArrayList<>(GRAPH_STATS.values());
+        graphs.sort(Comparator.comparingLong(GraphStats::getTotalTime).reversed());
+        return graphs.subList(0, Math.min(count, graphs.size()));
+    }
+
+    public static class Stats {
+        private long ticks;
+        private long totalTime;
+        private long maxTime;
+        private long nodes;
+        private long endpoints;
+        private long transfers;
+
+        void record(long tickTime, int nodes, int endpoints, int transfers) {
+            ticks++;
+            totalTime += tickTime;
+            maxTime = Math.max(maxTime, tickTime);
+            this.nodes += nodes;
+            this.endpoints += endpoints;
+            this.transfers += transfers;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public long getTotalTime() {
+            return totalTime;
+        }
+
+        public long getMaxTime() {
+            return maxTime;
+        }
+
+        public long getAverageTime() {
+            return ticks == 0 ? 0 : totalTime / ticks;
+        }
+
+        public long getAverageNodes() {
+            return ticks == 0 ? 0 : nodes / ticks;
+        }
+
+        public long getAverageEndpoints() {
+            return ticks == 0 ? 0 : endpoints / ticks;
+        }
+
+        public long getTransfers() {
+            return transfers;
+        }
+    }
+
+    public static class GraphStats extends Stats {
+        private final IConduitType<?> type;
+        private final ResourceKey<Level> level;
+        @Nullable private BlockPos pos = null;
+
+        private GraphStats(IConduitType<?> type, ResourceKey<Level> level) {
+            this.type = type;
+            this.level = level;
+        }
+
+        public IConduitType<?> getType() {
+            return type;
+        }
+
+        public ResourceKey<Level> getLevel() {
+            return level;
+        }
+
+        /**
+         * @return the position of one of the conduits of the graph
+         */
+        @Nullable
+        public BlockPos getPos() {
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.enderio.conduits.common.types;
+
+import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.misc.ColorControl;
+import com.enderio.conduits.common.profiling.ConduitTickProfiler;
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.GraphObject;
+import dev.gigaherz.graph3.Mergeable;
+import net.minecraftforge.energy.IEnergyStorage;
+
+import java.util.List;
+
+/**
+ * The energy buffer shared by all nodes of one energy conduit graph.
+ * Energy is only stored per node while saving, see {@link EnergyExtendedData#serializeNBT()}.
+ * The buffer holds the energy that was inserted into the conduits directly, so it goes to inserts of any color.
+ * Energy that extracts pull in is handed to the inserts of the same color right away, see {@link #distribute(ColorControl, List, long)}.
+ * Every time the graph changes, a new network is linked, which takes an even share of its old network's energy for each node it takes over.
+ */
+public class EnergyConduitNetwork implements IEnergyStorage {
+
+    /**
+     * Capacity every conduit in the graph adds to the buffer, on top of what the inserts requested last tick.
+     */
+    public static final int NODE_CAPACITY = 500;
+
+    private long stored = 0;
+    private long capacity = NODE_CAPACITY;
+    private int nodeCount = 1;
+    private int rotatingIndex = 0;
+    private final int[] colorRotatingIndices = new int[ColorControl.values().length];
+    private int linkedRevision = -1;
+    private int savedShare = -1;
+
+    /**
+     * Points all nodes of the graph to this new network, moving the energy they hold into it.
+     * A node that was linked before brings the share of its previous network, so after a split every part gets energy in proportion to its node count.
+     */
+    void link(Graph<Mergeable.Dummy> graph, int revision) {
+        nodeCount = Math.max(1, graph.getObjects().size());
+        capacity = (long) nodeCount * NODE_CAPACITY;
+        for (GraphObject<Mergeable.Dummy> object : graph.getObjects()) {
+            if (object instanceof NodeIdentifier<?> node) {
+                EnergyExtendedData data = node.getExtendedConduitData().castTo(EnergyExtendedData.class);
+                if (data.network != null) {
+                    stored += data.network.takeNodeShare();
+                } else {
+                    stored += data.getStored();
+                    data.setStored(0);
+                }
+                data.network = this;
+            }
+        }
+        linkedRevision = revision;
+    }
+
+    /**
+     * Hands out the energy of one of the nodes that weren't moved to a new network yet.
+     * Nodes of removed conduits never ask, so their share is lost with them.
+     */
+    private long takeNodeShare() {
+        long share = nodeCount <= 1 ? stored : stored / nodeCount;
+        stored -= share;
+        nodeCount = Math.max(0, nodeCount - 1);
+        return share;
+    }
+
+    boolean isLinked(int revision) {
+        return linkedRevision == revision;
+    }
+
+    void updateCapacity(long demand) {
+        capacity = Math.min(Integer.MAX_VALUE, (long) nodeCount * NODE_CAPACITY + demand);
+    }
+
+    int getSpace() {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, capacity - stored));
+    }
+
+    /**
+     * @return the energy a single node holds when it is saved
+     */
+    int getShare() {
+        return (int) Math.min(Integer.MAX_VALUE, stored / Math.max(1, nodeCount));
+    }
+
+    /**
+     * @return the share that was last written to the saved graph, see {@link EnergyConduitTicker#writeUnsavedState}
+     */
+    int getSavedShare() {
+        return savedShare;
+    }
+
+    void setSavedShare(int savedShare) {
+        this.savedShare = savedShare;
+    }
+
+    /**
+     * Offers the stored energy to the inserts of all colors.
+     * The insert that is served first rotates every tick.
+     */
+    void distribute(List<IEnergyStorage> inserts) {
+        if (inserts.isEmpty() || stored <= 0) {
+            return;
+        }
+
+        if (rotatingIndex >= inserts.size()) {
+            rotatingIndex = 0;
+        }
+
+        stored = offer(inserts, stored, rotatingIndex);
+        rotatingIndex = (rotatingIndex + 1) % inserts.size();
+    }
+
+    /**
+     * Offers energy extracted on a color to the inserts of that color, what they don't take is kept in the buffer.
+     */
+    void distribute(ColorControl color, List<IEnergyStorage> inserts, long amount) {
+        if (inserts.isEmpty() || amount <= 0) {
+            stored += amount;
+            return;
+        }
+
+        int index = colorRotatingIndices[color.ordinal()];
+        if (index >= inserts.size()) {
+            index = 0;
+        }
+
+        stored += offer(inserts, amount, index);
+        colorRotatingIndices[color.ordinal()] = (index + 1) % inserts.size();
+    }
+
+    /**
+     * Offers the energy to the inserts, first an even share to each of them and then whatever is left in order.
+     * @return the energy no insert took
+     */
+    private static long offer(List<IEnergyStorage> inserts, long amount, int firstIndex) {
+        int size = inserts.size();
+        for (int i = 0; i < size && amount > 0; i++) {
+            IEnergyStorage insert = inserts.get((firstIndex + i) % size);
+            int share = (int) Math.min(Integer.MAX_VALUE, amount / (size - i));
+            if (share > 0) {
+                amount -= transfer(insert, share);
+            }
+        }
+
+        for (int i = 0; i < size && amount > 0; i++) {
+            IEnergyStorage insert = inserts.get((firstIndex + i) % size);
+            amount -= transfer(insert, (int) Math.min(Integer.MAX_VALUE, amount));
+        }
+
+        return amount;
+    }
+
+    private static int transfer(IEnergyStorage insert, int amount) {
+        int received = insert.receiveEnergy(amount, false);
+        if (received > 0) {
+            ConduitTickProfiler.countTransfer();
+        }
+        return received;
+    }
+
+    @Override
+    public int receiveEnergy(int maxReceive, boolean simulate) {
+        int receivable = Math.min(getSpace(), maxReceive);
+        if (!simulate) {
+            stored += receivable;
+        }
+        return receivable;
+    }
+
+    @Override
+    public int extractEnergy(int maxExtract, boolean simulate) {
+        int extractable = (int) Math.min(stored, maxExtract);
+        if (!simulate) {
+            stored -= extractable;
+        }
+        return extractable;
+    }
+
+    @Override
+    public int getEnergyStored() {
+        return (int) Math.min(Integer.MAX_VALUE, stored);
+    }
+
+    @Override
+    public int getMaxEnergyStored() {
+        return (int) capacity;
+    }
+
+    @Override
+    public boolean canExtract() {
+        return true;
+    }
+
+    @Override
+    public boolean canReceive() {
+        return true;
+    }
+}
@@ -1,109 +1,125 @@
 package com.enderio.conduits.common.types;
 
+import com.enderio.api.conduit.GraphChangeTracker;
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.NodeIdentifier;
 import com.enderio.api.conduit.ticker.CapabilityAwareConduitTicker;
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
 import com.enderio.api.misc.ColorControl;
+import com.enderio.conduits.common.profiling.ConduitTickProfiler;
 import com.enderio.conduits.common.tag.ConduitTags;
+import com.enderio.core.CoreNBTKeys;
 import dev.gigaherz.graph3.Graph;
 import dev.gigaherz.graph3.Mergeable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.energy.IEnergyStorage;
 import org.apache.commons.lang3.function.TriFunction;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public class EnergyConduitTicker extends CapabilityAwareConduitTicker<IEnergyStorage> {
 
+    private final Map<Graph<Mergeable.Dummy>, EnergyConduitNetwork> networks = new WeakHashMap<>();
+
     public EnergyConduitTicker() {
     }
 
+    /**
+     * Moves energy from the extracts of each color to the inserts of that color (see {@link #tickCapabilityGraph}) and then pushes the shared buffer to all inserts.
+     * Only endpoints are visited, the amount of conduits in the graph does not matter.
+     */
     @Override
     public void tickGraph(IConduitType<?> type, List<NodeIdentifier<?>> loadedNodes, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
-        super.tickGraph(type, loadedNodes, level, graph, isRedstoneActive);
-        for (NodeIdentifier<?> node : loadedNodes) {
-            EnergyExtendedData energyExtendedData = node.getExtendedConduitData().castTo(EnergyExtendedData.class);
-            IEnergyStorage energy = energyExtendedData.getSelfCap()
-                .resolve()
-                .orElseThrow();
-            if (energy.getEnergyStored() == 0) {
-                energyExtendedData.setCapacity(500);
-                continue;
-            }
-            int previousStored = energy.getEnergyStored();
-            for (NodeIdentifier<?> otherNode : loadedNodes) {
-               for (Direction dir: Direction.values()) {
-                   if (otherNode.getIOState(dir).map(NodeIdentifier.IOState::isInsert).orElse(false)) {
-                       BlockEntity be = level.getBlockEntity(otherNode.getPos().relative(dir));
-                       if (be == null) {
-                           continue;
-                       }
-                       Optional<IEnergyStorage> capability = be.getCapability(ForgeCapabilities.ENERGY, dir.getOpposite()).resolve();
-                       if (capability.isPresent()) {
-                           IEnergyStorage insert = capability.get();
-                           extractEnergy(energy, List.of(insert), 0, i -> {});
-                       }
-                   }
-               }
-            }
-            if (energy.getEnergyStored() == 0) {
-                if (previousStored == energy.getMaxEnergyStored()) {
-                    energyExtendedData.setCapacity(Math.min(1_000_000_000, 2 * energyExtendedData.getCapacity()));
-                } else if (previousStored < energyExtendedData.getCapacity() / 2) {
-                    energyExtendedData.setCapacity(Math.max(500, energyExtendedData.getCapacity() / 2));
-                }
-            } else if (energy.getEnergyStored() > 0) {
-                energyExtendedData.setCapacity(Math.max(500, energy.getEnergyStored()));
-            }
+        IOEndpointIndex index = IOEndpointIndex.of(graph);
+        EnergyConduitNetwork network = networks.get(graph);
+        if (network == null || !network.isLinked(index.getRevision())) {
+            network = new EnergyConduitNetwork();
+            network.link(graph, index.getRevision());
+            networks.put(graph, network);
+            GraphChangeTracker.markChanged(graph);
         }
-    }
-        @Override
-    public void tickCapabilityGraph(IConduitType<?> type, List<CapabilityConnection> inserts, List<CapabilityConnection> extracts, ServerLevel level,
-        Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
 
+        super.tickGraph(type, loadedNodes, level, graph, isRedstoneActive);
 
-        for (CapabilityConnection extract : extracts) {
-            IEnergyStorage extractHandler = extract.cap;
+        List<IEnergyStorage> inserts = new ArrayList<>();
+        long demand = 0;
+        for (ColorControl color : ColorControl.values()) {
+            for (IOEndpointIndex.Endpoint endpoint : index.getInserts(color)) {
+                Connection connection = endpoint.connection();
+                if (!connection.node().isLoaded()) {
+                    continue;
+                }
 
-            EnergyExtendedData.EnergySidedData sidedExtractData = extract.data.castTo(EnergyExtendedData.class).compute(extract.direction);
-            extractEnergy(extractHandler, inserts.stream().map(con -> con.cap).toList(), sidedExtractData.rotatingIndex, i -> sidedExtractData.rotatingIndex = i);
+                IEnergyStorage insert = connection.node().getNeighbouringCapability(level, getCapability(), connection.dir()).orElse(null);
+                if (insert != null) {
+                    inserts.add(insert);
+                    demand += insert.receiveEnergy(Integer.MAX_VALUE, true);
+                }
+            }
         }
+
+        network.distribute(inserts);
+        network.updateCapacity(demand);
     }
 
-    private void extractEnergy(IEnergyStorage extractHandler, List<IEnergyStorage> inserts, int startingIndex, Consumer<Integer> rotationIndexSetter) {
+    /**
+     * The buffer's energy changes nearly every tick, it is only written to the nodes when the graph is saved.
+     */
+    @Override
+    public boolean hasUnsavedState(Graph<Mergeable.Dummy> graph) {
+        EnergyConduitNetwork network = networks.get(graph);
+        return network != null && network.getShare() != network.getSavedShare();
+    }
 
-        int availableForExtraction = extractHandler.extractEnergy(Integer.MAX_VALUE, true);
-        if (availableForExtraction <= 0) {
+    @Override
+    public void writeUnsavedState(Graph<Mergeable.Dummy> graph, List<CompoundTag> nodeData) {
+        EnergyConduitNetwork network = networks.get(graph);
+        if (network == null) {
             return;
         }
 
-        if (inserts.size() <= startingIndex) {
-            startingIndex = 0;
-            rotationIndexSetter.accept(0);
+        int share = network.getShare();
+        for (CompoundTag data : nodeData) {
+            data.putInt(CoreNBTKeys.ENERGY_STORED, share);
         }
+        network.setSavedShare(share);
+    }
 
-        for (int j = startingIndex; j < startingIndex + inserts.size(); j++) {
-            int insertIndex = j % inserts.size();
-            IEnergyStorage insert = inserts.get(insertIndex);
+    @Override
+    public void tickCapabilityGraph(IConduitType<?> type, List<CapabilityConnection> inserts, List<CapabilityConnection> extracts, ColorControl color, ServerLevel level,
+        Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
 
-            int inserted = insert.receiveEnergy(availableForExtraction, false);
-            extractHandler.extractEnergy(inserted, false);
+        List<IEnergyStorage> insertCaps = new ArrayList<>(inserts.size());
+        long demand = 0;
+        for (CapabilityConnection insert : inserts) {
+            insertCaps.add(insert.cap);
+            demand += insert.cap.receiveEnergy(Integer.MAX_VALUE, true);
+        }
 
-            if (inserted == availableForExtraction) {
-                rotationIndexSetter.accept(startingIndex + (insertIndex) + 1);
-                return;
+        // Only extract what the inserts of this color can take
+        long extracted = 0;
+        for (CapabilityConnection extract : extracts) {
+            if (extracted >= demand) {
+                break;
             }
 
-            availableForExtraction -= inserted;
+            int amount = extract.cap.extractEnergy((int) Math.min(Integer.MAX_VALUE, demand - extracted), false);
+            if (amount > 0) {
+                extracted += amount;
+                ConduitTickProfiler.countTransfer();
+            }
         }
+
+        networks.get(graph).distribute(color, insertCaps, extracted);
     }
 
     /**
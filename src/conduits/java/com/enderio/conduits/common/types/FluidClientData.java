@@ -46,8 +46,8 @@ public class FluidClientData extends IClientConduitData.Simple<FluidExtendedData
     @Override
     public List<BakedQuad> createConnectionQuads(FluidExtendedData extendedConduitData, @Nullable Direction facing, Direction connectionDirection,
         RandomSource rand, @Nullable RenderType type) {
-        if (!extendedConduitData.isMultiFluid && extendedConduitData.lockedFluid != null) {
-            return new FluidPaintQuadTransformer(extendedConduitData.lockedFluid).process(getModel(MODEL).getQuads(Blocks.COBBLESTONE.defaultBlockState(), facing, rand, ModelData.EMPTY, type));
+        if (!extendedConduitData.isMultiFluid && extendedConduitData.state.lockedFluid != null) {
+            return new FluidPaintQuadTransformer(extendedConduitData.state.lockedFluid).process(getModel(MODEL).getQuads(Blocks.COBBLESTONE.defaultBlockState(), facing, rand, ModelData.EMPTY, type));
         }
 
         return List.of();
@@ -57,9 +57,9 @@ public class FluidClientData extends IClientConduitData.Simple<FluidExtendedData
     public List<AbstractWidget> createWidgets(Screen screen, FluidExtendedData extendedConduitData, UpdateExtendedData<FluidExtendedData> updateExtendedConduitData, Supplier<Direction> direction, Vector2i widgetsStart) {
         return List.of(
             new FluidWidget(widgetsStart.add(0, 20),
-                () -> extendedConduitData.lockedFluid,
+                () -> extendedConduitData.state.lockedFluid,
                 () -> updateExtendedConduitData.update(data -> {
-                    data.shouldReset = true;
+                    data.state.shouldReset = true;
                     return data;
                 })
             )
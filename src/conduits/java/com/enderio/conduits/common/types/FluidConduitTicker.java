@@ -1,11 +1,12 @@
 package com.enderio.conduits.common.types;
 
+import com.enderio.api.conduit.GraphChangeTracker;
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.NodeIdentifier;
 import com.enderio.api.conduit.ticker.CapabilityAwareConduitTicker;
 import com.enderio.api.misc.ColorControl;
+import com.enderio.conduits.common.profiling.ConduitTickProfiler;
 import dev.gigaherz.graph3.Graph;
-import dev.gigaherz.graph3.GraphObject;
 import dev.gigaherz.graph3.Mergeable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
@@ -33,31 +34,24 @@ public class FluidConduitTicker extends CapabilityAwareConduitTicker<IFluidHandl
 
     @Override
     public void tickGraph(IConduitType<?> type, List<NodeIdentifier<?>> loadedNodes, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
-        boolean shouldReset = false;
-        for (NodeIdentifier<?> loadedNode : loadedNodes) {
-            FluidExtendedData fluidExtendedData = loadedNode.getExtendedConduitData().castTo(FluidExtendedData.class);
-            if (fluidExtendedData.shouldReset) {
-                shouldReset = true;
-                fluidExtendedData.shouldReset = false;
-            }
-        }
-        if (shouldReset) {
-            for (NodeIdentifier<?> loadedNode : loadedNodes) {
-                loadedNode.getExtendedConduitData().castTo(FluidExtendedData.class).lockedFluid = null;
-            }
+        FluidGraphState state = FluidGraphState.of(graph);
+        if (state.shouldReset) {
+            state.shouldReset = false;
+            state.lockedFluid = null;
+            GraphChangeTracker.markChanged(graph);
         }
         super.tickGraph(type, loadedNodes, level, graph, isRedstoneActive);
     }
 
     @Override
     protected void tickCapabilityGraph(IConduitType<?> type, List<CapabilityAwareConduitTicker<IFluidHandler>.CapabilityConnection> inserts,
-                                       List<CapabilityAwareConduitTicker<IFluidHandler>.CapabilityConnection> extracts, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
+                                       List<CapabilityAwareConduitTicker<IFluidHandler>.CapabilityConnection> extracts, ColorControl color, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
 
+        FluidGraphState state = FluidGraphState.of(graph);
         for (CapabilityConnection extract : extracts) {
             IFluidHandler extractHandler = extract.cap;
-            FluidExtendedData fluidExtendedData = extract.data.castTo(FluidExtendedData.class);
             FluidStack extractedFluid = Optional
-                .ofNullable(fluidExtendedData.lockedFluid)
+                .ofNullable(state.lockedFluid)
                 .map(fluid -> extractHandler.drain(new FluidStack(fluid, fluidRate), IFluidHandler.FluidAction.SIMULATE))
                 .orElseGet(() -> extractHandler.drain(fluidRate, IFluidHandler.FluidAction.SIMULATE));
 
@@ -67,23 +61,23 @@ public class FluidConduitTicker extends CapabilityAwareConduitTicker<IFluidHandl
 
             int transferred = 0;
             for (CapabilityAwareConduitTicker<IFluidHandler>.CapabilityConnection insert : inserts) {
-                FluidStack transferredFluid = fluidExtendedData.lockedFluid != null ?
-                    FluidUtil.tryFluidTransfer(insert.cap, extractHandler, new FluidStack(fluidExtendedData.lockedFluid, fluidRate - transferred),
+                FluidStack transferredFluid = state.lockedFluid != null ?
+                    FluidUtil.tryFluidTransfer(insert.cap, extractHandler, new FluidStack(state.lockedFluid, fluidRate - transferred),
                         true) :
                     FluidUtil.tryFluidTransfer(insert.cap, extractHandler, fluidRate - transferred, true);
 
                 if (!transferredFluid.isEmpty()) {
                     transferred += transferredFluid.getAmount();
+                    ConduitTickProfiler.countTransfer();
                     if (lockFluids) {
-                        for (GraphObject<Mergeable.Dummy> graphObject : graph.getObjects()) {
-                            if (graphObject instanceof NodeIdentifier<?> node) {
-                                Fluid fluid = transferredFluid.getFluid();
-                                if (fluid instanceof FlowingFluid flowing) {
-                                    fluid = flowing.getSource();
-                                }
+                        Fluid fluid = transferredFluid.getFluid();
+                        if (fluid instanceof FlowingFluid flowing) {
+                            fluid = flowing.getSource();
+                        }
 
-                                node.getExtendedConduitData().castTo(FluidExtendedData.class).lockedFluid = fluid;
-                            }
+                        if (state.lockedFluid != fluid) {
+                            state.lockedFluid = fluid;
+                            GraphChangeTracker.markChanged(graph);
                         }
                     }
 
@@ -14,9 +14,8 @@ public class FluidExtendedData implements IExtendedConduitData<FluidExtendedData
 
     public final boolean isMultiFluid;
 
-    @Nullable
-    Fluid lockedFluid = null;
-    boolean shouldReset = false;
+    // Shared with all other nodes of the graph on the server, see FluidGraphState
+    FluidGraphState state = new FluidGraphState();
 
     public FluidExtendedData(boolean isMultiFluid) {
         this.isMultiFluid = isMultiFluid;
@@ -24,19 +23,23 @@ public class FluidExtendedData implements IExtendedConduitData<FluidExtendedData
 
     @Override
     public void onConnectTo(FluidExtendedData otherData) {
-        if (lockedFluid != null) {
-            if (otherData.lockedFluid != null && lockedFluid != otherData.lockedFluid) {
+        if (state == otherData.state) {
+            return;
+        }
+
+        if (state.lockedFluid != null) {
+            if (otherData.state.lockedFluid != null && state.lockedFluid != otherData.state.lockedFluid) {
                 EnderIO.LOGGER.warn("incompatible fluid conduits merged");
             }
-            otherData.setLockedFluid(lockedFluid);
-        } else if (otherData.lockedFluid != null) {
-            setLockedFluid(otherData.lockedFluid);
+            otherData.setLockedFluid(state.lockedFluid);
+        } else if (otherData.state.lockedFluid != null) {
+            setLockedFluid(otherData.state.lockedFluid);
         }
     }
 
     @Override
     public boolean canConnectTo(FluidExtendedData otherData) {
-        return lockedFluid == null || otherData.lockedFluid == null || lockedFluid == otherData.lockedFluid;
+        return state.lockedFluid == null || otherData.state.lockedFluid == null || state.lockedFluid == otherData.state.lockedFluid;
     }
 
     // region Serialization
@@ -47,8 +50,8 @@ public class FluidExtendedData implements IExtendedConduitData<FluidExtendedData
     public CompoundTag serializeNBT() {
         CompoundTag nbt = new CompoundTag();
         if (!isMultiFluid) {
-            if (lockedFluid != null) {
-                nbt.putString(ConduitNBTKeys.FLUID, ForgeRegistries.FLUIDS.getKey(lockedFluid).toString());
+            if (state.lockedFluid != null) {
+                nbt.putString(ConduitNBTKeys.FLUID, ForgeRegistries.FLUIDS.getKey(state.lockedFluid).toString());
             } else {
                 nbt.putString(ConduitNBTKeys.FLUID, "null");
             }
@@ -63,7 +66,7 @@ public class FluidExtendedData implements IExtendedConduitData<FluidExtendedData
     @Override
     public CompoundTag serializeGuiNBT() {
         CompoundTag nbt = serializeNBT();
-        nbt.putBoolean(SHOULD_RESET, shouldReset);
+        nbt.putBoolean(SHOULD_RESET, state.shouldReset);
         return nbt;
     }
 
@@ -80,13 +83,13 @@ public class FluidExtendedData implements IExtendedConduitData<FluidExtendedData
             setLockedFluid(null);
         }
         if (nbt.contains(SHOULD_RESET)) {
-            shouldReset = nbt.getBoolean(SHOULD_RESET);
+            state.shouldReset = nbt.getBoolean(SHOULD_RESET);
         }
     }
 
     // endregion
 
     private void setLockedFluid(@Nullable Fluid lockedFluid) {
-        this.lockedFluid = lockedFluid;
+        state.lockedFluid = lockedFluid;
     }
 }
@@ -0,0 +1,62 @@
+package com.enderio.conduits.common.types;
+
+import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.GraphObject;
+import dev.gigaherz.graph3.Mergeable;
+import net.minecraft.world.level.material.Fluid;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The locked fluid and the pending reset of a fluid conduit graph.
+ * All {@link FluidExtendedData} of a graph reference the same state, so locking or resetting the graph only changes this object, while every node still saves the fluid itself.
+ * The nodes are moved to a new shared state when the {@link IOEndpointIndex} of the graph was rebuilt, so after nodes joined or left it.
+ */
+public final class FluidGraphState {
+
+    private static final Map<Graph<Mergeable.Dummy>, FluidGraphState> STATES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Nullable
+    Fluid lockedFluid = null;
+    boolean shouldReset = false;
+    private int revision;
+
+    FluidGraphState() {
+    }
+
+    public static FluidGraphState of(Graph<Mergeable.Dummy> graph) {
+        int revision = IOEndpointIndex.of(graph).getRevision();
+        FluidGraphState state = STATES.get(graph);
+        if (state == null || state.revision != revision) {
+            state = share(graph);
+            state.revision = revision;
+            STATES.put(graph, state);
+        }
+
+        return state;
+    }
+
+    /**
+     * Combines the states the nodes of the graph had before into one and hands it to all of them.
+     */
+    private static FluidGraphState share(Graph<Mergeable.Dummy> graph) {
+        FluidGraphState shared = new FluidGraphState();
+        for (GraphObject<Mergeable.Dummy> object : graph.getObjects()) {
+            if (object instanceof NodeIdentifier<?> node) {
+                FluidExtendedData data = node.getExtendedConduitData().castTo(FluidExtendedData.class);
+                if (shared.lockedFluid == null) {
+                    shared.lockedFluid = data.state.lockedFluid;
+                }
+                shared.shouldReset |= data.state.shouldReset;
+                data.state = shared;
+            }
+        }
+
+        return shared;
+    }
+}
@@ -1,8 +1,12 @@
 package com.enderio.conduits.common.types;
 
+import com.enderio.api.conduit.GraphChangeTracker;
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.ticker.CapabilityAwareConduitTicker;
+import com.enderio.api.conduit.ticker.IIOAwareConduitTicker.Connection;
 import com.enderio.api.misc.ColorControl;
+import com.enderio.conduits.common.config.ConduitsConfig;
+import com.enderio.conduits.common.profiling.ConduitTickProfiler;
 import dev.gigaherz.graph3.Graph;
 import dev.gigaherz.graph3.Mergeable;
 import net.minecraft.core.BlockPos;
@@ -14,51 +18,109 @@ import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
 import org.apache.commons.lang3.function.TriFunction;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ItemConduitTicker extends CapabilityAwareConduitTicker<IItemHandler> {
 
+    /**
+     * Every extract endpoint moves one stack per tick, into the first insert of its {@link ItemRoutingTable} that accepts it.
+     * Round robin rotates between the inserts of the same priority.
+     */
     @Override
-    protected void tickCapabilityGraph(IConduitType<?> type, List<CapabilityConnection> inserts, List<CapabilityConnection> extracts, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
-        toNextExtract:
+    protected void tickCapabilityGraph(IConduitType<?> type, List<CapabilityConnection> inserts, List<CapabilityConnection> extracts, ColorControl color,
+        ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
+        ItemRoutingTable routingTable = ItemRoutingTable.of(graph);
+        // Only inserts that are loaded and have a capability this tick are in here
+        Map<Connection, CapabilityConnection> insertsByConnection = new HashMap<>();
+        for (CapabilityConnection insert : inserts) {
+            insertsByConnection.put(new Connection(insert.node, insert.direction), insert);
+        }
+
+        int itemsPerOperation = ConduitsConfig.COMMON.ITEMS_PER_OPERATION.get();
+        long gameTime = level.getGameTime();
+
         for (CapabilityConnection extract: extracts) {
+            List<ItemRoutingTable.Route> routes = routingTable.getRoutes(color, new Connection(extract.node, extract.direction));
             IItemHandler extractHandler = extract.cap;
-            for (int i = 0; i < extractHandler.getSlots(); i++) {
-                ItemStack extractedItem = extractHandler.extractItem(i, 4, true);
+            int slots = extractHandler.getSlots();
+            ItemExtendedData.ItemSidedData sidedExtractData = extract.data.castTo(ItemExtendedData.class).compute(extract.direction);
+            int previousIndex = sidedExtractData.rotatingIndex;
+            if (!sidedExtractData.roundRobin) {
+                sidedExtractData.rotatingIndex = 0;
+            }
+
+            int firstSlot = sidedExtractData.extractSlot < slots ? sidedExtractData.extractSlot : 0;
+            for (int slot = 0; slot < slots; slot++) {
+                int i = (firstSlot + slot) % slots;
+                ItemStack extractedItem = extractHandler.extractItem(i, itemsPerOperation, true);
                 if (extractedItem.isEmpty()) {
                     continue;
                 }
 
-                ItemExtendedData.ItemSidedData sidedExtractData = extract.data.castTo(ItemExtendedData.class).compute(extract.direction);
-                if (sidedExtractData.roundRobin) {
-                    if (inserts.size() <= sidedExtractData.rotatingIndex) {
-                        sidedExtractData.rotatingIndex = 0;
-                    }
-                } else {
-                    sidedExtractData.rotatingIndex = 0;
+                if (insert(extract, i, extractedItem, routes, insertsByConnection, sidedExtractData, gameTime)) {
+                    break;
                 }
+            }
 
-                for (int j = sidedExtractData.rotatingIndex; j < sidedExtractData.rotatingIndex + inserts.size(); j++) {
-                    int insertIndex = j % inserts.size();
-                    CapabilityConnection insert = inserts.get(insertIndex);
+            if (sidedExtractData.rotatingIndex != previousIndex) {
+                GraphChangeTracker.markChanged(graph);
+            }
+        }
+    }
 
-                    if (!sidedExtractData.selfFeed
-                        && extract.direction == insert.direction
-                        && extract.data == insert.data) {
-                        continue;
-                    }
+    /**
+     * @return if the item was inserted somewhere
+     */
+    private boolean insert(CapabilityConnection extract, int slot, ItemStack extractedItem, List<ItemRoutingTable.Route> routes,
+        Map<Connection, CapabilityConnection> insertsByConnection, ItemExtendedData.ItemSidedData sidedExtractData, long gameTime) {
+        int groupStart = 0;
+        while (groupStart < routes.size()) {
+            int priority = routes.get(groupStart).priority();
+            int groupEnd = groupStart + 1;
+            while (groupEnd < routes.size() && routes.get(groupEnd).priority() == priority) {
+                groupEnd++;
+            }
 
-                    ItemStack notInserted = ItemHandlerHelper.insertItem(insert.cap, extractedItem, false);
-                    if (notInserted.getCount() < extractedItem.getCount()) {
-                        extractHandler.extractItem(i, extractedItem.getCount() - notInserted.getCount(), false);
-                        if (sidedExtractData.roundRobin) {
-                            sidedExtractData.rotatingIndex += insertIndex + 1;
-                        }
-                        continue toNextExtract;
+            int groupSize = groupEnd - groupStart;
+            int offset = sidedExtractData.roundRobin ? Math.floorMod(sidedExtractData.rotatingIndex, groupSize) : 0;
+            for (int j = 0; j < groupSize; j++) {
+                int position = (offset + j) % groupSize;
+                CapabilityConnection insert = insertsByConnection.get(routes.get(groupStart + position).insert());
+                if (insert == null) {
+                    continue;
+                }
+
+                if (!sidedExtractData.selfFeed
+                    && extract.direction == insert.direction
+                    && extract.data == insert.data) {
+                    continue;
+                }
+
+                ItemExtendedData.ItemSidedData sidedInsertData = insert.data.castTo(ItemExtendedData.class).compute(insert.direction);
+                if (sidedInsertData.hasRejected(extractedItem, insert.node.getNeighbourChanges(), gameTime)) {
+                    continue;
+                }
+
+                ItemStack notInserted = ItemHandlerHelper.insertItem(insert.cap, extractedItem, false);
+                if (notInserted.getCount() < extractedItem.getCount()) {
+                    extract.cap.extractItem(slot, extractedItem.getCount() - notInserted.getCount(), false);
+                    ConduitTickProfiler.countTransfer();
+                    sidedExtractData.extractSlot = slot;
+                    if (sidedExtractData.roundRobin) {
+                        sidedExtractData.rotatingIndex = position + 1;
                     }
+                    return true;
                 }
+
+                sidedInsertData.reject(extractedItem, insert.node.getNeighbourChanges(), gameTime);
             }
+
+            groupStart = groupEnd;
         }
+
+        return false;
     }
 
     @Override
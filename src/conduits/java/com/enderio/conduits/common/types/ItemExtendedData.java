@@ -3,9 +3,12 @@ package com.enderio.conduits.common.types;
 import com.enderio.api.conduit.IExtendedConduitData;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 public class ItemExtendedData implements IExtendedConduitData<ItemExtendedData> {
@@ -55,11 +58,51 @@ public class ItemExtendedData implements IExtendedConduitData<ItemExtendedData>
     }
 
     public static class ItemSidedData {
+        private static final int MAX_REJECTED_ITEMS = 16;
+
         public boolean roundRobin = false;
         public int rotatingIndex = 0;
         public boolean selfFeed = false;
         public int priority = 0;
 
+        // The slot the last item was extracted from, where the next extraction starts looking
+        public int extractSlot = 0;
+
+        // Items this side failed to insert this tick, they are skipped by the other extracts of the tick unless a neighbour changed.
+        // Inventories don't report content changes, so the items are tried again the next tick, a target that was emptied meanwhile is not missed.
+        private final List<ItemStack> rejectedItems = new ArrayList<>();
+        private int rejectedNeighbourChanges;
+        private long rejectedTick;
+
+        public boolean hasRejected(ItemStack stack, int neighbourChanges, long gameTime) {
+            if (rejectedItems.isEmpty()) {
+                return false;
+            }
+
+            if (neighbourChanges != rejectedNeighbourChanges || gameTime != rejectedTick) {
+                rejectedItems.clear();
+                return false;
+            }
+
+            for (ItemStack rejected : rejectedItems) {
+                if (ItemStack.isSameItemSameTags(rejected, stack)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        public void reject(ItemStack stack, int neighbourChanges, long gameTime) {
+            if (rejectedItems.isEmpty() || rejectedItems.size() >= MAX_REJECTED_ITEMS || neighbourChanges != rejectedNeighbourChanges || gameTime != rejectedTick) {
+                rejectedItems.clear();
+                rejectedNeighbourChanges = neighbourChanges;
+                rejectedTick = gameTime;
+            }
+
+            rejectedItems.add(stack.copyWithCount(1));
+        }
+
         // region Serialization
 
         private static final String KEY_ROTATING_INDEX = "RotatingIndex";
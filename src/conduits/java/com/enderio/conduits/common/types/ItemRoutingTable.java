@@ -0,0 +1,121 @@
+package com.enderio.conduits.common.types;
+
+import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.api.conduit.ticker.IIOAwareConduitTicker.Connection;
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
+import com.enderio.api.misc.ColorControl;
+import dev.gigaherz.graph3.Graph;
+import dev.gigaherz.graph3.GraphObject;
+import dev.gigaherz.graph3.Mergeable;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+
+/**
+ * The order an item conduit graph tries its insert endpoints in, for each extract endpoint.
+ * Inserts are ordered by priority, highest first, and then by the number of conduits between them and the extract endpoint, nearest first.
+ * The table is rebuilt when the {@link IOEndpointIndex} of the graph was rebuilt, so after the topology or IO states changed.
+ */
+public final class ItemRoutingTable {
+
+    private static final Map<Graph<Mergeable.Dummy>, ItemRoutingTable> TABLES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int revision;
+    private final Map<ColorControl, Map<Connection, List<Route>>> routes = new EnumMap<>(ColorControl.class);
+
+    private ItemRoutingTable(Graph<Mergeable.Dummy> graph, IOEndpointIndex index) {
+        this.revision = index.getRevision();
+
+        Map<NodeIdentifier<?>, Reference2IntMap<NodeIdentifier<?>>> distances = new HashMap<>();
+        for (ColorControl color : index.getActiveColors()) {
+            List<IOEndpointIndex.Endpoint> inserts = index.getInserts(color);
+            ReferenceSet<NodeIdentifier<?>> insertNodes = new ReferenceOpenHashSet<>();
+            for (IOEndpointIndex.Endpoint insert : inserts) {
+                insertNodes.add(insert.node());
+            }
+
+            Map<Connection, List<Route>> colorRoutes = new HashMap<>();
+            for (IOEndpointIndex.Endpoint extract : index.getExtracts(color)) {
+                Reference2IntMap<NodeIdentifier<?>> distancesFromExtract = distances.computeIfAbsent(extract.node(),
+                    node -> findDistances(graph, node, insertNodes));
+
+                List<Route> extractRoutes = new ArrayList<>(inserts.size());
+                for (IOEndpointIndex.Endpoint insert : inserts) {
+                    extractRoutes.add(new Route(insert.connection(), getPriority(insert.connection()), distancesFromExtract.getInt(insert.node())));
+                }
+
+                extractRoutes.sort(Comparator.comparingInt(Route::priority).reversed().thenComparingInt(Route::distance));
+                colorRoutes.put(extract.connection(), List.copyOf(extractRoutes));
+            }
+
+            routes.put(color, colorRoutes);
+        }
+    }
+
+    public static ItemRoutingTable of(Graph<Mergeable.Dummy> graph) {
+        IOEndpointIndex index = IOEndpointIndex.of(graph);
+        ItemRoutingTable table = TABLES.get(graph);
+        if (table == null || table.revision != index.getRevision()) {
+            table = new ItemRoutingTable(graph, index);
+            TABLES.put(graph, table);
+        }
+
+        return table;
+    }
+
+    /**
+     * @return the inserts of the color in the order the extract endpoint should try them
+     */
+    public List<Route> getRoutes(ColorControl color, Connection extract) {
+        return routes.getOrDefault(color, Map.of()).getOrDefault(extract, List.of());
+    }
+
+    private static int getPriority(Connection insert) {
+        return insert.data().castTo(ItemExtendedData.class).get(insert.dir()).priority;
+    }
+
+    /**
+     * Breadth first search from the extracting node that stops as soon as all insert nodes are reached.
+     */
+    private static Reference2IntMap<NodeIdentifier<?>> findDistances(Graph<Mergeable.Dummy> graph, NodeIdentifier<?> from, ReferenceSet<NodeIdentifier<?>> insertNodes) {
+        Reference2IntMap<GraphObject<Mergeable.Dummy>> visited = new Reference2IntOpenHashMap<>();
+        Reference2IntMap<NodeIdentifier<?>> distances = new Reference2IntOpenHashMap<>();
+        // Unreachable inserts can't happen in a connected graph, but sort them last just in case
+        distances.defaultReturnValue(Integer.MAX_VALUE);
+
+        Queue<GraphObject<Mergeable.Dummy>> queue = new ArrayDeque<>();
+        visited.put(from, 0);
+        queue.add(from);
+        while (!queue.isEmpty() && distances.size() < insertNodes.size()) {
+            GraphObject<Mergeable.Dummy> object = queue.poll();
+            int distance = visited.getInt(object);
+            if (object instanceof NodeIdentifier<?> node && insertNodes.contains(node)) {
+                distances.put(node, distance);
+            }
+
+            for (GraphObject<Mergeable.Dummy> neighbour : graph.getNeighbours(object)) {
+                if (!visited.containsKey(neighbour)) {
+                    visited.put(neighbour, distance + 1);
+                    queue.add(neighbour);
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    public record Route(Connection insert, int priority, int distance) {
+    }
+}
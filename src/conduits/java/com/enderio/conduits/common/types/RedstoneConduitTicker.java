@@ -1,8 +1,11 @@
 package com.enderio.conduits.common.types;
 
+import com.enderio.api.conduit.GraphChangeTracker;
 import com.enderio.api.conduit.IConduitType;
 import com.enderio.api.conduit.NodeIdentifier;
 import com.enderio.api.conduit.ticker.IIOAwareConduitTicker;
+import com.enderio.api.conduit.ticker.IOEndpointIndex;
+import com.enderio.api.conduit.ticker.LoadedNodeIndex;
 import com.enderio.api.misc.ColorControl;
 import com.enderio.conduits.common.init.ConduitBlocks;
 import com.enderio.conduits.common.tag.ConduitTags;
@@ -16,12 +19,17 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 import org.apache.commons.lang3.function.TriFunction;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public class RedstoneConduitTicker implements IIOAwareConduitTicker {
 
-    private final List<ColorControl> activeColors = new ArrayList<>();
+    private final Map<Graph<Mergeable.Dummy>, GraphState> states = new WeakHashMap<>();
+
+    // Colors found active in the graph that is currently ticking, one bit per ColorControl ordinal
+    private int activeMask = 0;
+
     @Override
     public boolean canConnectTo(Level level, BlockPos conduitPos, Direction direction) {
         BlockPos neighbor = conduitPos.relative(direction);
@@ -29,21 +37,48 @@ public class RedstoneConduitTicker implements IIOAwareConduitTicker {
         return blockState.is(ConduitTags.Blocks.REDSTONE_CONNECTABLE) || blockState.canRedstoneConnectTo(level, neighbor, direction);
     }
 
+    /**
+     * Computes the active colors of the graph as a mask.
+     * Nodes and inserts are only updated when the mask changed or nodes joined or left the graph, so a steady signal causes no block updates.
+     */
     @Override
     public void tickGraph(IConduitType<?> type, Graph<Mergeable.Dummy> graph, ServerLevel level, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
-        List<NodeIdentifier<?>> nodeIdentifiers = new ArrayList<>();
+        if (LoadedNodeIndex.count(graph) == 0) {
+            return;
+        }
+
+        // Endpoints come from the IOEndpointIndex, so the list of loaded nodes is not needed
+        activeMask = 0;
+        tickGraph(type, List.of(), level, graph, isRedstoneActive);
+
+        IOEndpointIndex index = IOEndpointIndex.of(graph);
+        GraphState state = states.computeIfAbsent(graph, ignored -> new GraphState());
+        boolean relinked = state.revision != index.getRevision();
+        int changedMask = relinked ? -1 : state.mask ^ activeMask;
+        if (changedMask == 0) {
+            return;
+        }
+
+        state.mask = activeMask;
+        state.revision = index.getRevision();
         for (GraphObject<Mergeable.Dummy> object : graph.getObjects()) {
             if (object instanceof NodeIdentifier<?> node) {
-                nodeIdentifiers.add(node);
+                RedstoneExtendedData data = node.getExtendedConduitData().cast();
+                data.setActiveMask(activeMask);
             }
         }
-        activeColors.clear();
-        tickGraph(type,nodeIdentifiers.stream().filter(node -> isLoaded(level, node.getPos())).toList(), level, graph, isRedstoneActive);
-        for (NodeIdentifier<?> nodeIdentifier : nodeIdentifiers) {
-            RedstoneExtendedData data = nodeIdentifier.getExtendedConduitData().cast();
-            data.clearActive();
-            for (ColorControl activeColor : activeColors) {
-                data.setActiveColor(activeColor);
+        GraphChangeTracker.markChanged(graph);
+
+        for (ColorControl color : ColorControl.values()) {
+            if ((changedMask & 1 << color.ordinal()) == 0) {
+                continue;
+            }
+
+            for (IOEndpointIndex.Endpoint insert : index.getInserts(color)) {
+                Connection connection = insert.connection();
+                if (connection.node().isLoaded()) {
+                    level.neighborChanged(connection.move(), ConduitBlocks.CONDUIT.get(), connection.pos());
+                }
             }
         }
     }
@@ -52,17 +87,19 @@ public class RedstoneConduitTicker implements IIOAwareConduitTicker {
     public void tickColoredGraph(IConduitType<?> type, List<Connection> inserts, List<Connection> extracts, ColorControl color, ServerLevel level, Graph<Mergeable.Dummy> graph, TriFunction<ServerLevel, BlockPos, ColorControl, Boolean> isRedstoneActive) {
         for (Connection extract : extracts) {
             if (level.hasSignal(extract.move(), extract.dir())) {
-                activeColors.add(color);
+                activeMask |= 1 << color.ordinal();
                 break;
             }
         }
-        for (Connection insert : inserts) {
-            level.neighborChanged(insert.move(), ConduitBlocks.CONDUIT.get(), insert.pos());
-        }
     }
 
     @Override
     public int getTickRate() {
         return 2;
     }
+
+    private static class GraphState {
+        private int mask = 0;
+        private int revision = -1;
+    }
 }
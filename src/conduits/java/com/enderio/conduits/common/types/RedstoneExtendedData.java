@@ -7,13 +7,12 @@ import net.minecraft.nbt.IntTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class RedstoneExtendedData implements IExtendedConduitData<RedstoneExtendedData> {
 
     private boolean isActive = false;
-    private final List<ColorControl> activeColors = new ArrayList<>();
+
+    // One bit per ColorControl ordinal
+    private int activeMask = 0;
 
     // region Serialization
 
@@ -26,8 +25,10 @@ public class RedstoneExtendedData implements IExtendedConduitData<RedstoneExtend
         nbt.putBoolean(KEY_ACTIVE, isActive);
 
         ListTag colors = new ListTag();
-        for (ColorControl activeColor : activeColors) {
-            colors.add(IntTag.valueOf(activeColor.ordinal()));
+        for (ColorControl color : ColorControl.values()) {
+            if (isActive(color)) {
+                colors.add(IntTag.valueOf(color.ordinal()));
+            }
         }
         nbt.put(KEY_COLORED_ACTIVE, colors);
         return nbt;
@@ -36,7 +37,7 @@ public class RedstoneExtendedData implements IExtendedConduitData<RedstoneExtend
     @Override
     public void deserializeNBT(CompoundTag nbt) {
         isActive = nbt.getBoolean(KEY_ACTIVE);
-        activeColors.clear();
+        activeMask = 0;
         if (nbt.contains(KEY_COLORED_ACTIVE, Tag.TAG_LIST)) {
             ListTag list = nbt.getList(KEY_COLORED_ACTIVE, Tag.TAG_INT);
             for (Tag tag : list) {
@@ -46,7 +47,7 @@ public class RedstoneExtendedData implements IExtendedConduitData<RedstoneExtend
                         continue;
                     }
 
-                    activeColors.add(ColorControl.values()[intValue]);
+                    activeMask |= 1 << intValue;
                 }
             }
         }
@@ -64,21 +65,19 @@ public class RedstoneExtendedData implements IExtendedConduitData<RedstoneExtend
     }
 
     public boolean isActive(ColorControl color) {
-        return activeColors.contains(color);
+        return (activeMask & 1 << color.ordinal()) != 0;
     }
 
-    public void clearActive() {
-        activeColors.clear();
-        isActive = false;
+    public int getActiveMask() {
+        return activeMask;
     }
 
-    public void setActiveColor(ColorControl color) {
-        if (activeColors.contains(color)) {
-            return;
-        }
-
-        isActive = true;
-        activeColors.add(color);
+    /**
+     * @param activeMask the active colors, one bit per {@link ColorControl} ordinal
+     */
+    public void setActiveMask(int activeMask) {
+        this.activeMask = activeMask;
+        isActive = activeMask != 0;
     }
 
     public RedstoneExtendedData deepCopy() {
@@ -0,0 +1,155 @@
+package com.enderio.conduits.client.model;
+
+import com.enderio.EnderIO;
+import com.enderio.conduits.common.blockentity.ConduitBlockEntity;
+import com.enderio.conduits.common.blockentity.ConduitBundleRenderState;
+import com.google.common.cache.CacheStats;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.chat.Component;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientCommandsEvent;
+import net.minecraftforge.client.model.data.ModelData;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client command that requests the quads of every conduit within render distance, like rebuilding all chunks around the player does.
+ * It compares building the quads without the cache, with an empty cache and with the cache filled by the previous pass.
+ */
+@Mod.EventBusSubscriber(modid = EnderIO.MODID, value = Dist.CLIENT)
+public class ConduitModelBenchmark {
+
+    private static final Direction[] SIDES = { null, Direction.DOWN, Direction.UP, Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST };
+
+    @SubscribeEvent
+    public static void onRegisterClientCommands(RegisterClientCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("enderio_conduit_model_benchmark")
+            .executes(context -> run(context.getSource())));
+    }
+
+    private static int run(CommandSourceStack source) {
+        List<ConduitQuads> conduits = findConduits();
+        if (conduits.isEmpty()) {
+            source.sendFailure(Component.literal("No conduits within render distance"));
+            return 0;
+        }
+
+        RandomSource random = RandomSource.create(42);
+
+        // The first pass warms up the JIT, so the cache isn't compared with interpreted code
+        createAllQuads(conduits, random);
+        long uncachedNanos = createAllQuads(conduits, random);
+
+        List<ConduitBlockModel> models = conduits.stream()
+            .map(ConduitQuads::model)
+            .distinct()
+            .toList();
+        models.forEach(ConduitBlockModel::clearQuadCache);
+
+        CacheStats before = stats(models);
+        long emptyCacheNanos = getAllQuads(conduits, random);
+        CacheStats emptyCache = stats(models).minus(before);
+
+        before = stats(models);
+        long filledCacheNanos = getAllQuads(conduits, random);
+        CacheStats filledCache = stats(models).minus(before);
+
+        String result = String.format("%d conduits, %d cached getQuads calls: uncached %.1fms, empty cache %.1fms (%.1f%% hits), filled cache %.1fms (%.1f%% hits)",
+            conduits.size(), emptyCache.requestCount(), uncachedNanos / 1e6, emptyCacheNanos / 1e6, emptyCache.hitRate() * 100, filledCacheNanos / 1e6, filledCache.hitRate() * 100);
+        EnderIO.LOGGER.info("Conduit model benchmark: {}", result);
+        source.sendSuccess(() -> Component.literal(result), false);
+        return conduits.size();
+    }
+
+    private static List<ConduitQuads> findConduits() {
+        Minecraft minecraft = Minecraft.getInstance();
+        ClientLevel level = minecraft.level;
+        List<ConduitQuads> conduits = new ArrayList<>();
+        if (level == null || minecraft.player == null) {
+            return conduits;
+        }
+
+        ChunkPos center = minecraft.player.chunkPosition();
+        int renderDistance = minecraft.options.getEffectiveRenderDistance();
+        for (int x = center.x - renderDistance; x <= center.x + renderDistance; x++) {
+            for (int z = center.z - renderDistance; z <= center.z + renderDistance; z++) {
+                LevelChunk chunk = level.getChunkSource().getChunk(x, z, ChunkStatus.FULL, false);
+                if (chunk == null) {
+                    continue;
+                }
+
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    if (blockEntity instanceof ConduitBlockEntity conduit) {
+                        BlockState state = conduit.getBlockState();
+                        BakedModel model = minecraft.getBlockRenderer().getBlockModel(state);
+                        if (model instanceof ConduitBlockModel conduitModel) {
+                            conduits.add(new ConduitQuads(conduitModel, state, conduit.getModelData()));
+                        }
+                    }
+                }
+            }
+        }
+
+        return conduits;
+    }
+
+    private static long createAllQuads(List<ConduitQuads> conduits, RandomSource random) {
+        long start = System.nanoTime();
+        for (ConduitQuads conduit : conduits) {
+            ConduitBundleRenderState bundle = conduit.data().get(ConduitBlockEntity.BUNDLE_MODEL_PROPERTY);
+            BlockPos pos = conduit.data().get(ConduitBlockEntity.POS);
+            if (bundle == null || pos == null) {
+                continue;
+            }
+
+            for (RenderType renderType : conduit.model().getRenderTypes(conduit.state(), random, conduit.data())) {
+                for (Direction side : SIDES) {
+                    conduit.model().createQuads(conduit.state(), side, random, conduit.data(), renderType, bundle, pos);
+                }
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static long getAllQuads(List<ConduitQuads> conduits, RandomSource random) {
+        long start = System.nanoTime();
+        for (ConduitQuads conduit : conduits) {
+            for (RenderType renderType : conduit.model().getRenderTypes(conduit.state(), random, conduit.data())) {
+                for (Direction side : SIDES) {
+                    conduit.model().getQuads(conduit.state(), side, random, conduit.data(), renderType);
+                }
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * All conduit blocks share one model, the stats are added up in case a resource pack splits them.
+     */
+    private static CacheStats stats(List<ConduitBlockModel> models) {
+        return models.stream()
+            .map(ConduitBlockModel::getQuadCacheStats)
+            .reduce(new CacheStats(0, 0, 0, 0, 0, 0), CacheStats::plus);
+    }
+
+    private record ConduitQuads(ConduitBlockModel model, BlockState state, ModelData data) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.enderio.conduits.common.network;
+
+import com.enderio.EnderIO;
+import com.enderio.api.conduit.ConduitTypes;
+import com.enderio.api.conduit.IConduitType;
+import com.enderio.api.conduit.NodeIdentifier;
+import com.enderio.conduits.ConduitNBTKeys;
+import com.enderio.conduits.common.init.EnderConduitTypes;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads synthetic conduit saves and checks the graphs through what {@link ConduitSavedData#save} writes back.
+ */
+@GameTestHolder(EnderIO.MODID)
+@PrefixGameTestTemplate(false)
+public class ConduitSavedDataTests {
+
+    private static final int LARGE_GRAPH_CONNECTIONS = 100_000;
+
+    private static final int UNLOADED_NODES = 200_000;
+
+    /**
+     * A single line of conduits with {@value LARGE_GRAPH_CONNECTIONS} connections, the longest path a graph of that size can have.
+     */
+    @GameTest(template = "empty")
+    public static void loadsLargeGraph(GameTestHelper helper) {
+        int nodeCount = LARGE_GRAPH_CONNECTIONS + 1;
+        List<int[]> connections = new ArrayList<>(LARGE_GRAPH_CONNECTIONS);
+        for (int i = 0; i < LARGE_GRAPH_CONNECTIONS; i++) {
+            connections.add(new int[] { i, i + 1 });
+        }
+
+        CompoundTag nbt = createSave(EnderConduitTypes.ITEM.get(), nodeCount, connections);
+
+        long start = System.nanoTime();
+        ConduitSavedData savedData = new ConduitSavedData(helper.getLevel(), nbt);
+        long nanos = System.nanoTime() - start;
+
+        assertGraphs(helper, savedData, List.of(new int[] { nodeCount, LARGE_GRAPH_CONNECTIONS }));
+        EnderIO.LOGGER.info("Loaded a conduit graph with {} nodes and {} connections in {}ms", nodeCount, LARGE_GRAPH_CONNECTIONS, nanos / 1_000_000);
+        helper.succeed();
+    }
+
+    /**
+     * A saved graph whose nodes aren't all connected is loaded as one graph per connected part, connections out of range are dropped.
+     */
+    @GameTest(template = "empty")
+    public static void splitsDisconnectedGraph(GameTestHelper helper) {
+        // 0-1-2-3 with a cycle back from 3 to 0, 5-6, and 4 and 7 alone as node 8 doesn't exist
+        List<int[]> connections = List.of(
+            new int[] { 0, 1 }, new int[] { 1, 2 }, new int[] { 2, 3 }, new int[] { 3, 0 },
+            new int[] { 5, 6 },
+            new int[] { 7, 8 });
+
+        ConduitSavedData savedData = new ConduitSavedData(helper.getLevel(), createSave(EnderConduitTypes.ITEM.get(), 8, connections));
+
+        assertGraphs(helper, savedData, List.of(new int[] { 4, 4 }, new int[] { 1, 0 }, new int[] { 2, 1 }, new int[] { 1, 0 }));
+        helper.succeed();
+    }
+
+    /**
+     * Puts {@value UNLOADED_NODES} unloaded nodes into the index and takes them again, and logs its heap use next to maps of boxed keys as they were used before.
+     */
+    @GameTest(template = "empty")
+    public static void indexesUnloadedNodes(GameTestHelper helper) {
+        IConduitType<?> type = EnderConduitTypes.ITEM.get();
+        List<NodeIdentifier<?>> nodes = new ArrayList<>(UNLOADED_NODES);
+        for (int i = 0; i < UNLOADED_NODES; i++) {
+            // A flat base of 1000 by 200 conduits, over 13 by 63 chunks
+            BlockPos pos = new BlockPos(i % 1000, 64, i / 1000);
+            nodes.add(new NodeIdentifier<>(pos, type.createExtendedConduitData(helper.getLevel(), pos)));
+        }
+
+        long heapBefore = usedHeap();
+        ConduitSavedData savedData = new ConduitSavedData(helper.getLevel(), new CompoundTag());
+        for (NodeIdentifier<?> node : nodes) {
+            savedData.putUnloadedNodeIdentifier(type, node.getPos(), node);
+        }
+        long indexHeap = usedHeap() - heapBefore;
+
+        heapBefore = usedHeap();
+        Map<ChunkPos, Map<BlockPos, NodeIdentifier<?>>> boxedIndex = new HashMap<>();
+        for (NodeIdentifier<?> node : nodes) {
+            boxedIndex.computeIfAbsent(new ChunkPos(node.getPos()), chunkPos -> new HashMap<>()).put(node.getPos(), node);
+        }
+        long boxedHeap = usedHeap() - heapBefore;
+
+        long start = System.nanoTime();
+        for (NodeIdentifier<?> node : nodes) {
+            if (savedData.takeUnloadedNodeIdentifier(type, node.getPos()) != node) {
+                helper.fail("Took the wrong node for " + node.getPos());
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        EnderIO.LOGGER.info("Indexed {} unloaded conduit nodes in {}KB of heap, {}KB with boxed keys in {} chunks, took them in {}ms",
+            UNLOADED_NODES, indexHeap / 1024, boxedHeap / 1024, boxedIndex.size(), nanos / 1_000_000);
+        helper.succeed();
+    }
+
+    private static long usedHeap() {
+        // Only a hint, the heap use is logged and not asserted for that reason
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Writes a save with one graph of nodes along the x axis, in the layout {@link ConduitSavedData#save} uses.
+     */
+    private static CompoundTag createSave(IConduitType<?> type, int nodeCount, List<int[]> connections) {
+        ListTag objectsTag = new ListTag();
+        for (int i = 0; i < nodeCount; i++) {
+            CompoundTag nodeTag = new CompoundTag();
+            nodeTag.putLong(ConduitNBTKeys.BLOCK_POS, new BlockPos(i, 64, 0).asLong());
+            nodeTag.put("Data", new CompoundTag());
+            objectsTag.add(nodeTag);
+        }
+
+        ListTag connectionsTag = new ListTag();
+        for (int[] connection : connections) {
+            CompoundTag connectionTag = new CompoundTag();
+            connectionTag.put("0", IntTag.valueOf(connection[0]));
+            connectionTag.put("1", IntTag.valueOf(connection[1]));
+            connectionsTag.add(connectionTag);
+        }
+
+        CompoundTag graphTag = new CompoundTag();
+        graphTag.put("GraphObjects", objectsTag);
+        graphTag.put("GraphConnections", connectionsTag);
+
+        ListTag graphsForTypeTag = new ListTag();
+        graphsForTypeTag.add(graphTag);
+
+        CompoundTag typedGraphTag = new CompoundTag();
+        typedGraphTag.putString("Type", ConduitTypes.getRegistry().getKey(type).toString());
+        typedGraphTag.put("Graphs", graphsForTypeTag);
+
+        ListTag graphsTag = new ListTag();
+        graphsTag.add(typedGraphTag);
+
+        CompoundTag nbt = new CompoundTag();
+        nbt.put("Graphs", graphsTag);
+        return nbt;
+    }
+
+    /**
+     * @param expected the node and connection count of each graph, in the order they were loaded
+     */
+    private static void assertGraphs(GameTestHelper helper, ConduitSavedData savedData, List<int[]> expected) {
+        ListTag graphsTag = savedData.save(new CompoundTag()).getList("Graphs", Tag.TAG_COMPOUND);
+        if (graphsTag.size() != 1) {
+            helper.fail("Expected graphs of one conduit type, got " + graphsTag.size());
+        }
+
+        ListTag graphsForTypeTag = graphsTag.getCompound(0).getList("Graphs", Tag.TAG_COMPOUND);
+        if (graphsForTypeTag.size() != expected.size()) {
+            helper.fail("Expected " + expected.size() + " graphs, got " + graphsForTypeTag.size());
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            CompoundTag graphTag = graphsForTypeTag.getCompound(i);
+            int nodeCount = graphTag.getList("GraphObjects", Tag.TAG_COMPOUND).size();
+            int connectionCount = graphTag.getList("GraphConnections", Tag.TAG_COMPOUND).size();
+            if (nodeCount != expected.get(i)[0] || connectionCount != expected.get(i)[1]) {
+                helper.fail("Graph " + i + " has " + nodeCount + " nodes and " + connectionCount + " connections, expected "
+                    + expected.get(i)[0] + " and " + expected.get(i)[1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.enderio.machines.common.recipe;
+
+import com.enderio.EnderIO;
+import com.enderio.api.grindingball.IGrindingBallData;
+import com.enderio.base.common.init.EIOItems;
+import com.enderio.machines.common.blockentity.AlloySmelterBlockEntity;
+import com.enderio.machines.common.blockentity.PaintingMachineBlockEntity;
+import com.enderio.machines.common.blockentity.SagMillBlockEntity;
+import com.enderio.machines.common.blockentity.SlicerBlockEntity;
+import com.enderio.machines.common.blockentity.SoulBinderBlockEntity;
+import com.enderio.machines.common.blockentity.base.MachineBlockEntity;
+import com.enderio.machines.common.init.MachineBlocks;
+import com.enderio.machines.common.init.MachineRecipes;
+import com.enderio.machines.common.io.item.MachineInventory;
+import com.enderio.machines.common.io.item.MultiSlotAccess;
+import com.enderio.machines.common.io.item.SingleSlotAccess;
+import com.enderio.machines.common.utility.RecipeInputCache;
+import com.sun.management.ThreadMXBean;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.Container;
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.CookingBookCategory;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.item.crafting.SmeltingRecipe;
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.common.crafting.conditions.ICondition;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import net.minecraftforge.items.wrapper.RecipeWrapper;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Checks that the {@link RecipeCaches} answer like the recipe manager they replace.
+ */
+@GameTestHolder(EnderIO.MODID)
+@PrefixGameTestTemplate(false)
+public class RecipeCacheTests {
+
+    // Large modpacks have about this many recipes of a type
+    private static final int MANY_RECIPES = 5_000;
+
+    private static final int HAS_RECIPE_CALLS = 200_000;
+
+    /**
+     * Every loaded recipe is looked up with its ingredients in the machine, the cache has to return the same recipe as {@link RecipeManager#getRecipeFor}.
+     */
+    @GameTest(template = "empty")
+    public static void lookupsMatchRecipeManager(GameTestHelper helper) {
+        MachineInventory alloySmelter = placeMachine(helper, new BlockPos(0, 1, 0), MachineBlocks.ALLOY_SMELTER.get());
+        assertSameRecipes(helper, RecipeCaches.ALLOY_SMELTING, MachineRecipes.ALLOY_SMELTING.type().get(),
+            new AlloySmeltingRecipe.ContainerWrapper(false, alloySmelter), slots(AlloySmelterBlockEntity.INPUTS), container -> {});
+
+        MachineInventory paintingMachine = placeMachine(helper, new BlockPos(1, 1, 0), MachineBlocks.PAINTING_MACHINE.get());
+        assertSameRecipes(helper, RecipeCaches.PAINTING, MachineRecipes.PAINTING.type().get(),
+            new RecipeWrapper(paintingMachine), slots(PaintingMachineBlockEntity.INPUT.wrapToMulti()),
+            container -> container.setItem(PaintingMachineBlockEntity.PAINT.getIndex(), new ItemStack(Items.OAK_PLANKS)));
+
+        MachineInventory sagMill = placeMachine(helper, new BlockPos(2, 1, 0), MachineBlocks.SAG_MILL.get());
+        assertSameRecipes(helper, RecipeCaches.SAG_MILLING, MachineRecipes.SAG_MILLING.type().get(),
+            new SagMillingRecipe.Container(sagMill, () -> IGrindingBallData.IDENTITY), slots(SagMillBlockEntity.INPUT.wrapToMulti()), container -> {});
+
+        MachineInventory soulBinder = placeMachine(helper, new BlockPos(0, 1, 1), MachineBlocks.SOUL_BINDER.get());
+        assertSameRecipes(helper, RecipeCaches.SOUL_BINDING, MachineRecipes.SOUL_BINDING.type().get(),
+            new SoulBindingRecipe.Container(soulBinder, () -> Integer.MAX_VALUE), slots(SoulBinderBlockEntity.INPUT_OTHER.wrapToMulti()),
+            container -> container.setItem(SoulBinderBlockEntity.INPUT_SOUL.getIndex(), new ItemStack(EIOItems.FILLED_SOUL_VIAL.get())));
+
+        MachineInventory slicer = placeMachine(helper, new BlockPos(1, 1, 1), MachineBlocks.SLICE_AND_SPLICE.get());
+        assertSameRecipes(helper, RecipeCaches.SLICING, MachineRecipes.SLICING.type().get(),
+            new RecipeWrapper(slicer), slots(SlicerBlockEntity.INPUTS), container -> {});
+
+        assertSameRecipes(helper, RecipeCaches.SMELTING, RecipeType.SMELTING, new SimpleContainer(1), new int[] { 0 }, container -> {});
+
+        helper.succeed();
+    }
+
+    /**
+     * Looks up every item against {@value MANY_RECIPES} generated smelting recipes, several of them share an input so the first one has to win.
+     */
+    @GameTest(template = "empty")
+    public static void lookupsMatchRecipeManagerWithManyRecipes(GameTestHelper helper) {
+        List<Item> items = ForgeRegistries.ITEMS.getValues().stream()
+            .filter(item -> item != Items.AIR)
+            .toList();
+
+        List<Recipe<?>> recipes = new ArrayList<>(MANY_RECIPES);
+        for (int i = 0; i < MANY_RECIPES; i++) {
+            Item input = items.get(i % items.size());
+            // Every tenth recipe accepts two items, like the tag ingredients of modpack recipes
+            Ingredient ingredient = i % 10 == 0 ? Ingredient.of(input, items.get(i * 31 % items.size())) : Ingredient.of(input);
+            recipes.add(new SmeltingRecipe(EnderIO.loc("gametest/smelting_" + i), "", CookingBookCategory.MISC, ingredient, new ItemStack(Items.STONE), 0, 200));
+        }
+
+        RecipeManager recipeManager = new RecipeManager(ICondition.IContext.EMPTY);
+        recipeManager.replaceRecipes(recipes);
+
+        RecipeInputCache<Container, SmeltingRecipe> cache = new RecipeInputCache<>(() -> RecipeType.SMELTING);
+        cache.build(recipeManager).run();
+
+        SimpleContainer container = new SimpleContainer(1);
+        long cacheNanos = 0;
+        long recipeManagerNanos = 0;
+        int found = 0;
+        for (Item item : items) {
+            container.setItem(0, new ItemStack(item));
+
+            long start = System.nanoTime();
+            Optional<SmeltingRecipe> expected = recipeManager.getRecipeFor(RecipeType.SMELTING, container, helper.getLevel());
+            long middle = System.nanoTime();
+            Optional<SmeltingRecipe> actual = cache.getRecipeFor(container, helper.getLevel());
+            cacheNanos += System.nanoTime() - middle;
+            recipeManagerNanos += middle - start;
+
+            assertSameRecipe(helper, "generated smelting", item.toString(), expected, actual);
+            if (expected.isPresent()) {
+                found++;
+            }
+        }
+
+        EnderIO.LOGGER.info("Looked up {} items in {} generated recipes ({} found): cache {}us, recipe manager {}us",
+            items.size(), MANY_RECIPES, found, cacheNanos / 1_000, recipeManagerNanos / 1_000);
+        helper.succeed();
+    }
+
+    /**
+     * Checks {@link RecipeInputCache#hasRecipe} against a search over all recipes, then times it for 1, 2 and 3 inputs and counts what it allocates.
+     * Slot validators call it on every insert attempt, so a validation must not allocate once the caches are built.
+     */
+    @GameTest(template = "empty")
+    public static void hasRecipeMatchesSearchWithoutAllocating(GameTestHelper helper) {
+        List<HasRecipeCall> calls = new ArrayList<>();
+        calls.addAll(assertSameHasRecipe(helper, RecipeCaches.SMELTING, RecipeType.SMELTING));
+        calls.addAll(assertSameHasRecipe(helper, RecipeCaches.ALLOY_SMELTING, MachineRecipes.ALLOY_SMELTING.type().get()));
+        calls.addAll(assertSameHasRecipe(helper, RecipeCaches.SLICING, MachineRecipes.SLICING.type().get()));
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int inputCount = 1; inputCount <= 3; inputCount++) {
+            int size = inputCount;
+            List<HasRecipeCall> sized = calls.stream()
+                .filter(call -> call.inputs().size() == size)
+                .toList();
+            if (sized.isEmpty()) {
+                EnderIO.LOGGER.info("No recipes with {} inputs to time", inputCount);
+                continue;
+            }
+
+            // Warm up the scratch buffers and the JIT before measuring
+            runHasRecipe(sized, HAS_RECIPE_CALLS);
+
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            int callCount = runHasRecipe(sized, HAS_RECIPE_CALLS);
+            long nanos = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            EnderIO.LOGGER.info("hasRecipe with {} inputs: {} calls, {}ns and {} bytes allocated per call",
+                inputCount, callCount, nanos / callCount, (double) allocated / callCount);
+            if (allocated >= callCount) {
+                helper.fail("hasRecipe with " + inputCount + " inputs allocated " + allocated + " bytes in " + callCount + " calls");
+            }
+        }
+
+        helper.succeed();
+    }
+
+    private static MachineInventory placeMachine(GameTestHelper helper, BlockPos pos, Block block) {
+        helper.setBlock(pos, block);
+        MachineBlockEntity machine = helper.getBlockEntity(pos);
+        MachineInventory inventory = machine.getInventory();
+        if (inventory == null) {
+            helper.fail("Machine has no inventory", pos);
+        }
+
+        return inventory;
+    }
+
+    private static int[] slots(MultiSlotAccess access) {
+        return access.getAccesses().stream()
+            .mapToInt(SingleSlotAccess::getIndex)
+            .toArray();
+    }
+
+    /**
+     * Puts the ingredients of each recipe into the input slots, as the first item of the ingredient with its max stack size, and compares both lookups.
+     */
+    private static <C extends Container, T extends Recipe<C>> void assertSameRecipes(GameTestHelper helper, RecipeInputCache<C, T> cache, RecipeType<T> recipeType,
+        C container, int[] inputSlots, Consumer<C> prepare) {
+
+        RecipeManager recipeManager = helper.getLevel().getRecipeManager();
+        List<T> recipes = recipeManager.getAllRecipesFor(recipeType);
+
+        long cacheNanos = 0;
+        long recipeManagerNanos = 0;
+        int found = 0;
+        for (T recipe : recipes) {
+            container.clearContent();
+            prepare.accept(container);
+
+            List<Ingredient> ingredients = recipe.getIngredients();
+            for (int i = 0; i < Math.min(ingredients.size(), inputSlots.length); i++) {
+                ItemStack[] items = ingredients.get(i).getItems();
+                if (items.length > 0) {
+                    container.setItem(inputSlots[i], items[0].copyWithCount(items[0].getMaxStackSize()));
+                }
+            }
+
+            long start = System.nanoTime();
+            Optional<T> expected = recipeManager.getRecipeFor(recipeType, container, helper.getLevel());
+            long middle = System.nanoTime();
+            Optional<T> actual = cache.getRecipeFor(container, helper.getLevel());
+            cacheNanos += System.nanoTime() - middle;
+            recipeManagerNanos += middle - start;
+
+            assertSameRecipe(helper, cache.getName(), recipe.getId().toString(), expected, actual);
+            if (expected.isPresent()) {
+                found++;
+            }
+        }
+
+        // Nothing in the machine
+        container.clearContent();
+        assertSameRecipe(helper, cache.getName(), "empty", recipeManager.getRecipeFor(recipeType, container, helper.getLevel()),
+            cache.getRecipeFor(container, helper.getLevel()));
+
+        EnderIO.LOGGER.info("Looked up {} recipes of {} ({} found): cache {}us, recipe manager {}us",
+            recipes.size(), cache.getName(), found, cacheNanos / 1_000, recipeManagerNanos / 1_000);
+    }
+
+    /**
+     * Compares hasRecipe with a search over all recipes, for the ingredients of each recipe and for the same ingredients with an item no recipe uses.
+     * @return the calls for the recipes with up to 3 inputs
+     */
+    private static <C extends Container, T extends Recipe<C>> List<HasRecipeCall> assertSameHasRecipe(GameTestHelper helper, RecipeInputCache<C, T> cache,
+        RecipeType<T> recipeType) {
+
+        List<T> recipes = helper.getLevel().getRecipeManager().getAllRecipesFor(recipeType);
+        List<HasRecipeCall> calls = new ArrayList<>();
+        for (T recipe : recipes) {
+            List<ItemStack> recipeInputs = new ArrayList<>();
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                ItemStack[] items = ingredient.getItems();
+                if (items.length > 0) {
+                    recipeInputs.add(items[0]);
+                }
+            }
+
+            for (int i = 1; i <= recipeInputs.size(); i++) {
+                List<ItemStack> partial = List.copyOf(recipeInputs.subList(0, i));
+                assertSameHasRecipe(helper, cache, recipes, recipe.getId().toString(), partial);
+                if (i <= 3) {
+                    calls.add(new HasRecipeCall(cache, partial));
+                }
+            }
+
+            List<ItemStack> withUnused = new ArrayList<>(recipeInputs);
+            withUnused.add(new ItemStack(Items.BEDROCK));
+            assertSameHasRecipe(helper, cache, recipes, recipe.getId() + " and bedrock", withUnused);
+        }
+
+        return calls;
+    }
+
+    private static void assertSameHasRecipe(GameTestHelper helper, RecipeInputCache<?, ?> cache, List<? extends Recipe<?>> recipes, String input,
+        List<ItemStack> inputs) {
+        boolean expected = hasRecipeSearch(recipes, inputs);
+        if (cache.hasRecipe(inputs) != expected) {
+            helper.fail(cache.getName() + " hasRecipe for " + input + " (" + inputs.size() + " inputs) should be " + expected);
+        }
+    }
+
+    /**
+     * The lookup hasRecipe replaced, every recipe needs an own ingredient for each input.
+     */
+    private static boolean hasRecipeSearch(List<? extends Recipe<?>> recipes, List<ItemStack> inputs) {
+        if (inputs.isEmpty()) {
+            return true;
+        }
+
+        for (Recipe<?> recipe : recipes) {
+            boolean[] checked = new boolean[inputs.size()];
+            int matchCount = 0;
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (!checked[i] && ingredient.test(inputs.get(i))) {
+                        checked[i] = true;
+                        matchCount++;
+                        break;
+                    }
+                }
+            }
+
+            if (matchCount >= inputs.size()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int runHasRecipe(List<HasRecipeCall> calls, int minCalls) {
+        int callCount = 0;
+        while (callCount < minCalls) {
+            for (int i = 0; i < calls.size(); i++) {
+                HasRecipeCall call = calls.get(i);
+                call.cache().hasRecipe(call.inputs());
+                callCount++;
+            }
+        }
+
+        return callCount;
+    }
+
+    private static <T extends Recipe<?>> void assertSameRecipe(GameTestHelper helper, String cache, String input, Optional<T> expected, Optional<T> actual) {
+        if (!expected.map(Recipe::getId).equals(actual.map(Recipe::getId))) {
+            helper.fail(cache + " found " + actual.map(Recipe::getId) + " for " + input + " instead of " + expected.map(Recipe::getId));
+        }
+    }
+
+    private record HasRecipeCall(RecipeInputCache<?, ?> cache, List<ItemStack> inputs) {
+    }
+}
@@ -5,6 +5,7 @@ import com.enderio.api.integration.IntegrationManager;
 import com.enderio.api.travel.TravelRegistry;
 import com.enderio.base.data.EIODataProvider;
 import com.enderio.machines.client.rendering.travel.TravelAnchorRenderer;
+import com.enderio.machines.common.blockentity.SlicerRecipeManager;
 import com.enderio.machines.common.blockentity.solar.SolarPanelTier;
 import com.enderio.machines.common.config.MachinesConfig;
 import com.enderio.machines.common.init.MachineBlockEntities;
@@ -18,6 +19,7 @@ import com.enderio.machines.common.menu.EnchanterMenu;
 import com.enderio.machines.common.menu.GhostMachineSlot;
 import com.enderio.machines.common.menu.MachineSlot;
 import com.enderio.machines.common.menu.PreviewMachineSlot;
+import com.enderio.machines.common.recipe.RecipeCaches;
 import com.enderio.machines.common.tag.MachineTags;
 import com.enderio.machines.common.travel.AnchorTravelTarget;
 import com.enderio.machines.data.advancements.MachinesAdvancementGenerator;
@@ -70,6 +72,8 @@ public class EIOMachines {
         MachineLang.register();
         MachineRecipes.register();
         MachineTags.register();
+        RecipeCaches.register();
+        SlicerRecipeManager.register();
 
         // Remap
         MinecraftForge.EVENT_BUS.addListener(EIOMachines::missingMappings);
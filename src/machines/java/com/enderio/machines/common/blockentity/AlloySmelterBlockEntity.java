@@ -23,6 +23,7 @@ import com.enderio.machines.common.io.item.SingleSlotAccess;
 import com.enderio.machines.common.menu.AlloySmelterMenu;
 import com.enderio.machines.common.recipe.AlloySmeltingRecipe;
 import com.enderio.machines.common.recipe.RecipeCaches;
+import com.enderio.machines.common.utility.RecipeInputCache;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
@@ -69,7 +70,7 @@ public class AlloySmelterBlockEntity extends PoweredMachineBlockEntity {
 
         // Crafting task host
         craftingTaskHost = new AlloySmeltingMachineTaskHost(this, this::canAcceptTask,
-            MachineRecipes.ALLOY_SMELTING.type().get(), new AlloySmeltingRecipe.ContainerWrapper(isPrimitiveSmelter(), getInventoryNN()), this::createTask);
+            RecipeCaches.ALLOY_SMELTING, new AlloySmeltingRecipe.ContainerWrapper(isPrimitiveSmelter(), getInventoryNN()), this::createTask);
 
         // This can be changed by the gui for the normal and enhanced machines.
         if (!isPrimitiveSmelter()) {
@@ -198,6 +199,11 @@ public class AlloySmelterBlockEntity extends PoweredMachineBlockEntity {
         return craftingTaskHost.getProgress();
     }
 
+    @Override
+    protected boolean isIdle() {
+        return !canAct() || !hasEnergy() || craftingTaskHost.isIdle();
+    }
+
     @Override
     protected boolean isActive() {
         return canAct() && hasEnergy() && craftingTaskHost.hasTask();
@@ -300,10 +306,11 @@ public class AlloySmelterBlockEntity extends PoweredMachineBlockEntity {
     }
 
     protected class AlloySmeltingMachineTaskHost extends CraftingMachineTaskHost<AlloySmeltingRecipe, AlloySmeltingRecipe.ContainerWrapper> {
-        public AlloySmeltingMachineTaskHost(EnderBlockEntity blockEntity, Supplier<Boolean> canAcceptNewTask, RecipeType<AlloySmeltingRecipe> recipeType,
+        public AlloySmeltingMachineTaskHost(EnderBlockEntity blockEntity, Supplier<Boolean> canAcceptNewTask,
+            RecipeInputCache<AlloySmeltingRecipe.ContainerWrapper, AlloySmeltingRecipe> recipeCache,
             AlloySmeltingRecipe.ContainerWrapper container,
             ICraftingMachineTaskFactory<AlloySmeltingMachineTask, AlloySmeltingRecipe, AlloySmeltingRecipe.ContainerWrapper> taskFactory) {
-            super(blockEntity, canAcceptNewTask, recipeType, container, taskFactory);
+            super(blockEntity, canAcceptNewTask, recipeCache, container, taskFactory);
         }
 
         @Override
@@ -324,8 +331,7 @@ public class AlloySmelterBlockEntity extends PoweredMachineBlockEntity {
             // Get vanilla smelting recipe.
             if (getMode().canSmelt()) {
                 for (int i = 0; i < AlloySmelterBlockEntity.INPUTS.size(); i++) {
-                    var recipe = level.getRecipeManager()
-                        .getRecipeFor(RecipeType.SMELTING, new ContainerSubWrapper(getContainer(), i), level);
+                    var recipe = RecipeCaches.SMELTING.getRecipeFor(new ContainerSubWrapper(getContainer(), i), level);
                     if (recipe.isPresent() && IntegrationManager.allMatch(integration -> integration.acceptSmeltingRecipe(recipe.get()))) {
                         return Optional.of(new VanillaAlloySmeltingRecipe(recipe.get()));
                     }
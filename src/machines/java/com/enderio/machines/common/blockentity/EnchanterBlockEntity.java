@@ -81,6 +81,7 @@ public class EnchanterBlockEntity extends MachineBlockEntity {
         return new MachineInventory(getIOConfig(), layout) {
 
             protected void onContentsChanged(int slot) {
+                super.onContentsChanged(slot);
                 if (level == null) {
                     return;
                 }
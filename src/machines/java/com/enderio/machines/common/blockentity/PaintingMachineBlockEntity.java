@@ -11,7 +11,6 @@ import com.enderio.machines.common.blockentity.base.PoweredMachineBlockEntity;
 import com.enderio.machines.common.blockentity.task.PoweredCraftingMachineTask;
 import com.enderio.machines.common.blockentity.task.host.CraftingMachineTaskHost;
 import com.enderio.machines.common.config.MachinesConfig;
-import com.enderio.machines.common.init.MachineRecipes;
 import com.enderio.machines.common.io.item.MachineInventoryLayout;
 import com.enderio.machines.common.io.item.SingleSlotAccess;
 import com.enderio.machines.common.menu.PaintingMachineMenu;
@@ -57,7 +56,7 @@ public class PaintingMachineBlockEntity extends PoweredMachineBlockEntity {
 
         area = AABB.ofSize(worldPosition.getCenter(), 10, 10, 10);
 
-        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, MachineRecipes.PAINTING.type().get(),
+        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, RecipeCaches.PAINTING,
             new RecipeWrapper(getInventoryNN()), this::createTask);
     }
 
@@ -127,6 +126,11 @@ public class PaintingMachineBlockEntity extends PoweredMachineBlockEntity {
         return craftingTaskHost.getProgress();
     }
 
+    @Override
+    protected boolean isIdle() {
+        return !canAct() || !hasEnergy() || craftingTaskHost.isIdle();
+    }
+
     @Override
     protected boolean isActive() {
         return canAct() && hasEnergy() && craftingTaskHost.hasTask();
@@ -158,6 +158,12 @@ public class PrimitiveAlloySmelterBlockEntity extends AlloySmelterBlockEntity {
         return null;
     }
 
+    @Override
+    protected boolean isIdle() {
+        // Fuel burns down and is only consumed while awake
+        return !isBurning() && (!canAct() || craftingTaskHost.isIdle() || FUEL.getItemStack(this).isEmpty());
+    }
+
     public boolean isBurning() {
         return burnTime > 0;
     }
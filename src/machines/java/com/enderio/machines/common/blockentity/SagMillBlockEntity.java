@@ -11,7 +11,6 @@ import com.enderio.machines.common.blockentity.base.PoweredMachineBlockEntity;
 import com.enderio.machines.common.blockentity.task.PoweredCraftingMachineTask;
 import com.enderio.machines.common.blockentity.task.host.CraftingMachineTaskHost;
 import com.enderio.machines.common.config.MachinesConfig;
-import com.enderio.machines.common.init.MachineRecipes;
 import com.enderio.machines.common.io.item.MachineInventory;
 import com.enderio.machines.common.io.item.MachineInventoryLayout;
 import com.enderio.machines.common.io.item.MultiSlotAccess;
@@ -55,7 +54,7 @@ public class SagMillBlockEntity extends PoweredMachineBlockEntity {
         addDataSlot(new IntegerNetworkDataSlot(() -> grindingBallDamage, i -> grindingBallDamage = i));
         addDataSlot(new ResourceLocationNetworkDataSlot(() -> grindingBallData.getGrindingBallId(), gId -> grindingBallData = GrindingBallManager.getData(gId)));
 
-        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, MachineRecipes.SAG_MILLING.type().get(),
+        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, RecipeCaches.SAG_MILLING,
             new SagMillingRecipe.Container(getInventoryNN(), this::getGrindingBallData), this::createTask);
     }
 
@@ -131,6 +130,11 @@ public class SagMillBlockEntity extends PoweredMachineBlockEntity {
         return craftingTaskHost.getProgress();
     }
 
+    @Override
+    protected boolean isIdle() {
+        return !canAct() || !hasEnergy() || craftingTaskHost.isIdle();
+    }
+
     @Override
     protected boolean isActive() {
         return canAct() && hasEnergy() && craftingTaskHost.hasTask();
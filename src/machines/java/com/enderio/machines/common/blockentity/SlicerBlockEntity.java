@@ -8,7 +8,6 @@ import com.enderio.machines.common.blockentity.task.CraftingMachineTask;
 import com.enderio.machines.common.blockentity.task.PoweredCraftingMachineTask;
 import com.enderio.machines.common.blockentity.task.host.CraftingMachineTaskHost;
 import com.enderio.machines.common.config.MachinesConfig;
-import com.enderio.machines.common.init.MachineRecipes;
 import com.enderio.machines.common.io.item.MachineInventory;
 import com.enderio.machines.common.io.item.MachineInventoryLayout;
 import com.enderio.machines.common.io.item.MultiSlotAccess;
@@ -51,7 +50,7 @@ public class SlicerBlockEntity extends PoweredMachineBlockEntity {
     public SlicerBlockEntity(BlockEntityType<?> type, BlockPos worldPosition, BlockState blockState) {
         super(EnergyIOMode.Input, CAPACITY, USAGE, type, worldPosition, blockState);
 
-        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, MachineRecipes.SLICING.type().get(),
+        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, RecipeCaches.SLICING,
             new RecipeWrapper(getInventoryNN()), this::createTask) {
             @Override
             protected @Nullable CraftingMachineTask<SlicingRecipe, Container> getNewTask() {
@@ -130,6 +129,11 @@ public class SlicerBlockEntity extends PoweredMachineBlockEntity {
         return craftingTaskHost.getProgress();
     }
 
+    @Override
+    protected boolean isIdle() {
+        return !canAct() || !hasEnergy() || craftingTaskHost.isIdle();
+    }
+
     @Override
     protected boolean isActive() {
         return canAct() && hasEnergy() && craftingTaskHost.hasTask();
@@ -13,7 +13,6 @@ import com.enderio.machines.common.blockentity.base.PoweredMachineBlockEntity;
 import com.enderio.machines.common.blockentity.task.PoweredCraftingMachineTask;
 import com.enderio.machines.common.blockentity.task.host.CraftingMachineTaskHost;
 import com.enderio.machines.common.config.MachinesConfig;
-import com.enderio.machines.common.init.MachineRecipes;
 import com.enderio.machines.common.io.item.MachineInventoryLayout;
 import com.enderio.machines.common.io.item.MultiSlotAccess;
 import com.enderio.machines.common.io.item.SingleSlotAccess;
@@ -64,7 +63,7 @@ public class SoulBinderBlockEntity extends PoweredMachineBlockEntity {
         ));
 
         // Create the crafting task host
-        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, MachineRecipes.SOUL_BINDING.type().get(),
+        craftingTaskHost = new CraftingMachineTaskHost<>(this, this::hasEnergy, RecipeCaches.SOUL_BINDING,
             new SoulBindingRecipe.Container(getInventoryNN(), getFluidTankNN()::getFluidAmount), this::createTask);
 
         // Sync crafting container needed xp
@@ -115,7 +114,7 @@ public class SoulBinderBlockEntity extends PoweredMachineBlockEntity {
     @Override
     protected void onInventoryContentsChanged(int slot) {
         super.onInventoryContentsChanged(slot);
-        recipe = level.getRecipeManager().getRecipeFor(MachineRecipes.SOUL_BINDING.type().get(), fakeContainer, level).orElse(null);
+        recipe = RecipeCaches.SOUL_BINDING.getRecipeFor(fakeContainer, level).orElse(null);
         craftingTaskHost.newTaskAvailable();
     }
 
@@ -135,8 +134,9 @@ public class SoulBinderBlockEntity extends PoweredMachineBlockEntity {
             protected void onContentsChanged() {
                 craftingTaskHost.newTaskAvailable();
                 updateMachineState(MachineState.EMPTY_TANK, getFluidAmount() <= 0);
-                recipe = level.getRecipeManager().getRecipeFor(MachineRecipes.SOUL_BINDING.type().get(), fakeContainer, level).orElse(null);
+                recipe = RecipeCaches.SOUL_BINDING.getRecipeFor(fakeContainer, level).orElse(null);
                 setChanged();
+                wakeUp();
             }
 
             @Override
@@ -165,6 +165,11 @@ public class SoulBinderBlockEntity extends PoweredMachineBlockEntity {
         return craftingTaskHost.getProgress();
     }
 
+    @Override
+    protected boolean isIdle() {
+        return !canAct() || !hasEnergy() || craftingTaskHost.isIdle();
+    }
+
     @Override
     protected boolean isActive() {
         return canAct() && hasEnergy() && craftingTaskHost.hasTask();
@@ -25,6 +25,7 @@ import com.enderio.machines.common.io.item.MachineInventoryLayout;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundSource;
@@ -113,6 +114,21 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
 
     // endregion
 
+    // region Sleeping
+
+    /**
+     * How long a sleeping machine that forces resources waits before it tries again, neighbours don't notify it of every change.
+     */
+    private static final int FORCED_IO_SLEEP_TICKS = 20;
+
+    private boolean isSleeping = false;
+    private long sleepUntil;
+
+    // Whether the last time resources were forced nothing was moved
+    private boolean isForcedIOStalled = false;
+
+    // endregion
+
     // region Common Dataslots
 
     private final EnumNetworkDataSlot<RedstoneControl> redstoneControlDataSlot;
@@ -196,6 +212,7 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
 
                 // Mark change
                 onIOConfigChanged(side, oldMode, newMode);
+                wakeUp();
             }
 
             @Override
@@ -341,6 +358,7 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
             clientUpdateSlot(redstoneControlDataSlot, redstoneControl);
         } else {
             this.redstoneControl = redstoneControl;
+            wakeUp();
         }
     }
 
@@ -375,8 +393,10 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
         return new MachineInventory(getIOConfig(), layout) {
             @Override
             protected void onContentsChanged(int slot) {
+                super.onContentsChanged(slot);
                 onInventoryContentsChanged(slot);
                 setChanged();
+                wakeUp();
             }
 
             @Override
@@ -422,6 +442,18 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
 
     // region Block Entity ticking
 
+    public static void tick(Level level, BlockPos pos, BlockState state, MachineBlockEntity blockEntity) {
+        if (!level.isClientSide && blockEntity.isSleeping) {
+            if (level.getGameTime() < blockEntity.sleepUntil) {
+                return;
+            }
+
+            blockEntity.wakeUp();
+        }
+
+        EnderBlockEntity.tick(level, pos, state, blockEntity);
+    }
+
     @Override
     public void serverTick() {
         if (isCapabilityCacheDirty) {
@@ -429,10 +461,14 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
         }
 
         if (canActSlow()) {
-            forceResources();
+            isForcedIOStalled = !forceResources();
         }
 
         super.serverTick();
+
+        if (canSleep()) {
+            sleep();
+        }
     }
 
     @Override
@@ -468,29 +504,94 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
 
     // endregion
 
+    // region Sleeping
+
+    /**
+     * Whether the machine has nothing to do until something changes, like its inventory, energy, neighbours, redstone or IO config.
+     * Machines are only put to sleep if they override this, as everything that gives them work again has to wake them up.
+     * Forcing resources is handled by the machine, it doesn't need to be checked here.
+     */
+    protected boolean isIdle() {
+        return false;
+    }
+
+    /**
+     * Whether the machine can stop ticking until it is woken up.
+     * @apiNote Must call super if overridden!
+     */
+    protected boolean canSleep() {
+        return !isCapabilityCacheDirty && isIdle();
+    }
+
+    public final boolean isSleeping() {
+        return isSleeping;
+    }
+
+    /**
+     * Make a sleeping machine tick again, call this whenever something happens that could give an idle machine work.
+     */
+    public void wakeUp() {
+        isSleeping = false;
+        isForcedIOStalled = false;
+    }
+
+    private void sleep() {
+        if (level == null) {
+            return;
+        }
+
+        if (!canAct() || !canForceResources()) {
+            sleepUntil = Long.MAX_VALUE;
+        } else if (isForcedIOStalled) {
+            // Check again after a while, in case a neighbour got something to push to or pull from without telling us.
+            sleepUntil = level.getGameTime() + FORCED_IO_SLEEP_TICKS;
+        } else {
+            return;
+        }
+
+        isSleeping = true;
+    }
+
+    // endregion
+
     // region Resource movement
 
+    private boolean canForceResources() {
+        for (Direction direction : Direction.values()) {
+            if (ioConfig.getMode(direction).canForce()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Push and pull resources to/from other blocks.
+     * @return whether anything was moved
      */
-    private void forceResources() {
+    private boolean forceResources() {
+        boolean moved = false;
         for (Direction direction : Direction.values()) {
             if (ioConfig.getMode(direction).canForce()) {
                 // TODO: Maybe some kind of resource distributor so that items are transmitted evenly around? rather than taking the order of Direction.values()
-                moveItems(direction);
-                moveFluids(direction);
+                moved |= moveItems(direction);
+                moved |= moveFluids(direction);
             }
         }
+
+        return moved;
     }
 
     /**
      * Move items to and fro via the given side.
      */
-    private void moveItems(Direction side) {
+    private boolean moveItems(Direction side) {
         // Get our item handler.
-        getCapability(ForgeCapabilities.ITEM_HANDLER, side).resolve().ifPresent(selfHandler -> {
+        return getCapability(ForgeCapabilities.ITEM_HANDLER, side).resolve().map(selfHandler -> {
             // Get neighboring item handler.
             Optional<IItemHandler> otherHandler = getNeighbouringCapability(ForgeCapabilities.ITEM_HANDLER, side).resolve();
+            boolean moved = false;
 
             if (otherHandler.isPresent()) {
                 // Get side config
@@ -498,21 +599,24 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
 
                 // Output items to the other provider if enabled.
                 if (mode.canPush()) {
-                    moveItems(selfHandler, otherHandler.get());
+                    moved |= moveItems(selfHandler, otherHandler.get());
                 }
 
                 // Insert items from the other provider if enabled.
                 if (mode.canPull()) {
-                    moveItems(otherHandler.get(), selfHandler);
+                    moved |= moveItems(otherHandler.get(), selfHandler);
                 }
             }
-        });
+
+            return moved;
+        }).orElse(false);
     }
 
     /**
      * Move items from one item handler to the other.
+     * @return whether an item was moved
      */
-    protected void moveItems(IItemHandler from, IItemHandler to) {
+    protected boolean moveItems(IItemHandler from, IItemHandler to) {
         for (int i = 0; i < from.getSlots(); i++) {
             ItemStack extracted = from.extractItem(i, 1, true);
             if (!extracted.isEmpty()) {
@@ -520,19 +624,21 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
                     ItemStack inserted = to.insertItem(j, extracted, false);
                     if (inserted.isEmpty()) {
                         from.extractItem(i, 1, false);
-                        return;
+                        return true;
                     }
                 }
             }
         }
+
+        return false;
     }
 
     /**
      * Move fluids to and fro via the given side.
      */
-    private void moveFluids(Direction side) {
+    private boolean moveFluids(Direction side) {
         // Get our fluid handler
-        getCapability(ForgeCapabilities.FLUID_HANDLER, side).resolve().ifPresent(selfHandler -> {
+        return getCapability(ForgeCapabilities.FLUID_HANDLER, side).resolve().map(selfHandler -> {
             // Get neighboring fluid handler.
             Optional<IFluidHandler> otherHandler = getNeighbouringCapability(ForgeCapabilities.FLUID_HANDLER, side).resolve();
 
@@ -545,12 +651,14 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
 
                 // If we have no fluids, see if we can pull. Otherwise, push.
                 if (stack.isEmpty() && mode.canPull()) {
-                    moveFluids(otherHandler.get(), selfHandler, 100);
+                    return moveFluids(otherHandler.get(), selfHandler, 100) > 0;
                 } else if (mode.canPush()) {
-                    moveFluids(selfHandler, otherHandler.get(), 100);
+                    return moveFluids(selfHandler, otherHandler.get(), 100) > 0;
                 }
             }
-        });
+
+            return false;
+        }).orElse(false);
     }
 
     /**
@@ -593,6 +701,7 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
      */
     public void markCapabilityCacheDirty() {
         isCapabilityCacheDirty = true;
+        wakeUp();
     }
 
     /**
@@ -703,7 +812,7 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
 
 
         // Mark capability cache dirty
-        isCapabilityCacheDirty = true;
+        markCapabilityCacheDirty();
 
         super.load(pTag);
     }
@@ -758,6 +867,15 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
         return InteractionResult.PASS;
     }
 
+    @UseOnly(LogicalSide.SERVER)
+    @Override
+    public void serverHandleBufferChange(FriendlyByteBuf buf) {
+        super.serverHandleBufferChange(buf);
+
+        // A setting was changed in the menu
+        wakeUp();
+    }
+
     public boolean canOpenMenu() {
         return true;
     }
@@ -774,10 +892,10 @@ public abstract class MachineBlockEntity extends EnderBlockEntity implements Men
         if (level != null && level.isClientSide) {
             return;
         }
-        if (add) {
-            states.add(state);
-        } else {
-            states.remove(state);
+        // Sleeping machines don't sync, so the new state has to wake them
+        boolean changed = add ? states.add(state) : states.remove(state);
+        if (changed) {
+            wakeUp();
         }
     }
 }
@@ -105,6 +105,12 @@ public abstract class PoweredMachineBlockEntity extends MachineBlockEntity imple
         super.serverTick();
     }
 
+    @Override
+    protected boolean canSleep() {
+        // Stay awake until the powered block state caught up
+        return !updateModel && super.canSleep();
+    }
+
     // region Energy
 
     /**
@@ -215,7 +221,7 @@ public abstract class PoweredMachineBlockEntity extends MachineBlockEntity imple
             protected void onContentsChanged() {
                 setChanged();
                 updateMachineState(MachineState.NO_POWER, getEnergyStorage().getEnergyStored() <= 0);
-
+                wakeUp();
             }
         };
     }
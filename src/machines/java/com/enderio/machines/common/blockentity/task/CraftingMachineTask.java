@@ -41,6 +41,10 @@ public abstract class CraftingMachineTask<R extends MachineRecipe<C>, C extends
 
     private boolean isComplete;
 
+    // The inventory change count the recipe was last matched against
+    private boolean hasMatchedInputs;
+    private int matchedChangeCount;
+
     public CraftingMachineTask(@NotNull Level level, MachineInventory inventory, C container, MultiSlotAccess outputSlots, @Nullable R recipe) {
         this.level = level;
         this.inventory = inventory;
@@ -108,10 +112,16 @@ public abstract class CraftingMachineTask<R extends MachineRecipe<C>, C extends
         }
 
         // If we don't have a recipe match, complete the task and wait for a new one.
-        if (!recipe.matches(container, level)) {
-            inventory.updateMachineState(MachineState.EMPTY_INPUT, true);
-            isComplete = true;
-            return;
+        // The inputs can only stop matching after the inventory changed.
+        if (!hasMatchedInputs || matchedChangeCount != inventory.getChangeCount()) {
+            if (!recipe.matches(container, level)) {
+                inventory.updateMachineState(MachineState.EMPTY_INPUT, true);
+                isComplete = true;
+                return;
+            }
+
+            hasMatchedInputs = true;
+            matchedChangeCount = inventory.getChangeCount();
         }
         inventory.updateMachineState(MachineState.EMPTY_INPUT, false);
 
@@ -122,6 +132,13 @@ public abstract class CraftingMachineTask<R extends MachineRecipe<C>, C extends
 
         // If the recipe has been crafted, attempt to put it into storage
         if (progressMade >= progressRequired) {
+            // Stacks can be changed in place without being counted, so check the inputs once more before taking them.
+            if (!recipe.matches(container, level)) {
+                inventory.updateMachineState(MachineState.EMPTY_INPUT, true);
+                isComplete = true;
+                return;
+            }
+
             // Attempt to complete the craft
             boolean placeOutputs = placeOutputs(outputs, false);
             inventory.updateMachineState(MachineState.FULL_OUTPUT, !placeOutputs);
@@ -3,9 +3,9 @@ package com.enderio.machines.common.blockentity.task.host;
 import com.enderio.core.common.blockentity.EnderBlockEntity;
 import com.enderio.machines.common.blockentity.task.CraftingMachineTask;
 import com.enderio.machines.common.recipe.MachineRecipe;
+import com.enderio.machines.common.utility.RecipeInputCache;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.Container;
-import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.Level;
 import org.jetbrains.annotations.Nullable;
 
@@ -18,17 +18,17 @@ public class CraftingMachineTaskHost<R extends MachineRecipe<C>, C extends Conta
         T createTask(Level level, C container, @Nullable R recipe);
     }
 
-    private final RecipeType<R> recipeType;
+    private final RecipeInputCache<C, R> recipeCache;
     private final C container;
     private final ICraftingMachineTaskFactory<? extends CraftingMachineTask<R, C>, R, C> taskFactory;
 
     /**
      * This should be constructed in the constructor of your block entity.
      */
-    public CraftingMachineTaskHost(EnderBlockEntity blockEntity, Supplier<Boolean> canAcceptNewTask, RecipeType<R> recipeType,
+    public CraftingMachineTaskHost(EnderBlockEntity blockEntity, Supplier<Boolean> canAcceptNewTask, RecipeInputCache<C, R> recipeCache,
         C container, ICraftingMachineTaskFactory<? extends CraftingMachineTask<R, C>, R, C> taskFactory) {
         super(blockEntity, canAcceptNewTask);
-        this.recipeType = recipeType;
+        this.recipeCache = recipeCache;
         this.container = container;
         this.taskFactory = taskFactory;
     }
@@ -83,6 +83,6 @@ public class CraftingMachineTaskHost<R extends MachineRecipe<C>, C extends Conta
         if (level == null) {
             return Optional.empty();
         }
-        return level.getRecipeManager().getRecipeFor(recipeType, container, level);
+        return recipeCache.getRecipeFor(container, level);
     }
 }
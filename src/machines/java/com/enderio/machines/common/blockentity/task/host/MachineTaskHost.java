@@ -115,6 +115,13 @@ public abstract class MachineTaskHost {
         }
     }
 
+    /**
+     * Whether there is no task to continue and no new task that could be started.
+     */
+    public final boolean isIdle() {
+        return !hasTask() && !(isNewTaskAvailable && canAcceptNewTask.get());
+    }
+
     public final void newTaskAvailable() {
         isNewTaskAvailable = true;
     }
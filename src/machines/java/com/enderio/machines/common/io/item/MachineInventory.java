@@ -28,6 +28,8 @@ public class MachineInventory extends ItemStackHandler implements IEnderCapabili
 
     private IntConsumer changeListener = i -> {};
 
+    private int changeCount = 0;
+
     /**
      * Create a new machine inventory.
      */
@@ -40,6 +42,14 @@ public class MachineInventory extends ItemStackHandler implements IEnderCapabili
         changeListener = changeListener.andThen(callback);
     }
 
+    /**
+     * Counts every change of the contents, so users can tell whether the inventory changed since they last looked at it.
+     * Stacks that are modified directly instead of through this handler are only counted if {@link #onSlotChanged(int)} is called.
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
     /**
      * Get the IO config for the machine.
      */
@@ -106,6 +116,26 @@ public class MachineInventory extends ItemStackHandler implements IEnderCapabili
         }
     }
 
+    /**
+     * Notify the inventory that the stack in a slot was modified directly, e.g. by a menu slot.
+     */
+    public void onSlotChanged(int slot) {
+        onContentsChanged(slot);
+    }
+
+    /**
+     * @apiNote Must call super if overridden!
+     */
+    @Override
+    protected void onContentsChanged(int slot) {
+        changeCount++;
+    }
+
+    @Override
+    protected void onLoad() {
+        changeCount++;
+    }
+
     @Override
     public ItemStack insertItem(int slot, ItemStack stack, boolean simulate) {
         boolean wasEmpty = !simulate && getStackInSlot(slot).isEmpty();
@@ -31,6 +31,12 @@ public class MachineSlot extends SlotItemHandler {
         return getItemHandler().getLayout().guiCanExtract(this.getSlotIndex()) && super.mayPickup(playerIn);
     }
 
+    @Override
+    public void setChanged() {
+        // The menu changes the slot's stack in place, so let the inventory count it.
+        getItemHandler().onSlotChanged(getSlotIndex());
+    }
+
     public boolean canQuickInsertStack() {
         return getItemHandler().getLayout().guiCanInsert(getSlotIndex());
     }
@@ -1,5 +1,6 @@
 package com.enderio.machines.common.utility;
 
+import com.enderio.base.common.util.RecipeIndexService;
 import com.enderio.machines.common.io.item.MachineInventory;
 import com.enderio.machines.common.io.item.MultiSlotAccess;
 import net.minecraft.world.Container;
@@ -9,28 +10,67 @@ import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.item.crafting.RecipeManager;
 import net.minecraft.world.item.crafting.RecipeType;
-import net.minecraftforge.fml.util.thread.EffectiveSide;
-import net.minecraftforge.server.ServerLifecycleHooks;
+import net.minecraft.world.level.Level;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
-public class RecipeInputCache<C extends Container, T extends Recipe<C>> {
+/**
+ * Index of the recipes of a type by their ingredient items.
+ * Every recipe gets an id in recipe manager order, each item maps to a bit set of the ids of the recipes that use it.
+ * Candidate recipes are found by combining these bit sets word by word in buffers that are reused, so validating an insert doesn't allocate.
+ * The index is built by the {@link RecipeIndexService} whenever recipes are loaded, once it was registered there, see {@link com.enderio.machines.common.recipe.RecipeCaches#register()}.
+ */
+public class RecipeInputCache<C extends Container, T extends Recipe<C>> implements RecipeIndexService.Index {
     private final Supplier<RecipeType<T>> recipeType;
-    private final HashMap<Item, HashSet<T>> itemToRecipesCache;
-    private final HashMap<T, List<Ingredient>> recipeToIngredientCache;
-    private boolean isDirty;
+    private volatile Snapshot<T> snapshot = new Snapshot<>(Map.of(), List.of(), List.of(), new long[0], 0);
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
 
     public RecipeInputCache(Supplier<RecipeType<T>> recipeType) {
         this.recipeType = recipeType;
-        this.itemToRecipesCache = new HashMap<>();
-        this.recipeToIngredientCache = new HashMap<>();
+    }
+
+    /**
+     * Find the recipe that matches the container, like {@link RecipeManager#getRecipeFor(RecipeType, Container, Level)}.
+     * Only the recipes that use one of the items in the container are tested, instead of all recipes of the type.
+     */
+    public Optional<T> getRecipeFor(C container, Level level) {
+        RecipeIndexService.awaitFirstBuild(this);
+        Snapshot<T> snapshot = this.snapshot;
+        int wordCount = snapshot.wordCount();
+
+        long[] candidates = scratch.get().lookup(wordCount);
+        System.arraycopy(snapshot.unindexedRecipes(), 0, candidates, 0, wordCount);
+        for (int i = 0; i < container.getContainerSize(); i++) {
+            ItemStack stack = container.getItem(i);
+            if (!stack.isEmpty()) {
+                long[] recipes = snapshot.itemToRecipes().get(stack.getItem());
+                if (recipes != null) {
+                    for (int word = 0; word < wordCount; word++) {
+                        candidates[word] |= recipes[word];
+                    }
+                }
+            }
+        }
+
+        // Ids are in recipe manager order, so this finds the same recipe it would
+        for (int word = 0; word < wordCount; word++) {
+            long bits = candidates[word];
+            while (bits != 0) {
+                T recipe = snapshot.recipesById().get(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                if (recipe.matches(container, level)) {
+                    return Optional.of(recipe);
+                }
+                bits &= bits - 1;
+            }
+        }
+
+        return Optional.empty();
     }
 
     /**
@@ -38,7 +78,8 @@ public class RecipeInputCache<C extends Container, T extends Recipe<C>> {
      */
     public boolean hasValidRecipeIf(MachineInventory inventory, MultiSlotAccess inputs, int slot, ItemStack toAdd) {
         // Collect the list of items that the recipe will match against
-        var currentItems = new ArrayList<ItemStack>();
+        List<ItemStack> currentItems = scratch.get().items;
+        currentItems.clear();
 
         // Build the new inventory state after the addition
         for (int i = 0; i < inputs.size(); i++) {
@@ -51,91 +92,164 @@ public class RecipeInputCache<C extends Container, T extends Recipe<C>> {
         }
 
         // Try and match the items list
-        return hasRecipe(currentItems);
+        boolean hasRecipe = hasRecipe(currentItems);
+        currentItems.clear();
+        return hasRecipe;
     }
 
     public boolean hasRecipe(List<ItemStack> inputs) {
-        checkCacheRebuild();
+        RecipeIndexService.awaitFirstBuild(this);
+        Snapshot<T> snapshot = this.snapshot;
+        int wordCount = snapshot.wordCount();
 
-        Set<T> possibleMatches = null;
+        if (inputs.isEmpty()) {
+            return true;
+        }
 
-        for (var input : inputs) {
-            var matches = itemToRecipesCache.get(input.getItem());
+        Scratch scratch = this.scratch.get();
+        long[] possibleMatches = scratch.candidates(wordCount);
+        for (int i = 0; i < inputs.size(); i++) {
+            long[] matches = snapshot.itemToRecipes().get(inputs.get(i).getItem());
             if (matches == null) {
                 return false;
             }
 
-            if (possibleMatches == null) {
-                possibleMatches = matches;
+            long any = 0;
+            if (i == 0) {
+                System.arraycopy(matches, 0, possibleMatches, 0, wordCount);
+                any = 1;
             } else {
-                possibleMatches = possibleMatches.stream()
-                    .filter(matches::contains)
-                    .collect(Collectors.toSet());
+                for (int word = 0; word < wordCount; word++) {
+                    possibleMatches[word] &= matches[word];
+                    any |= possibleMatches[word];
+                }
             }
 
-            if (possibleMatches.isEmpty()) {
+            if (any == 0) {
                 return false;
             }
+        }
 
-            boolean anyMatches = false;
-            for (var match : possibleMatches) {
-                var ingredients = recipeToIngredientCache.get(match);
-                var checked = new boolean[inputs.size()];
-                int matchCount = 0;
-
-                for (Ingredient ingredient : ingredients) {
-                    for (int i = 0; i < inputs.size(); i++) {
-                        if (checked[i]) {
-                            continue;
-                        }
-
-                        if (ingredient.test(inputs.get(i))) {
-                            checked[i] = true;
-                            matchCount++;
-                            break;
-                        }
-                    }
+        // Check that one of the recipes that use all items has an ingredient for each of them
+        boolean[] checked = scratch.checked(inputs.size());
+        for (int word = 0; word < wordCount; word++) {
+            long bits = possibleMatches[word];
+            while (bits != 0) {
+                List<Ingredient> ingredients = snapshot.ingredientsById().get(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                if (matchesAll(ingredients, inputs, checked)) {
+                    return true;
                 }
+                bits &= bits - 1;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matchesAll(List<Ingredient> ingredients, List<ItemStack> inputs, boolean[] checked) {
+        Arrays.fill(checked, 0, inputs.size(), false);
+        int matchCount = 0;
 
-                if (matchCount >= inputs.size()) {
-                    anyMatches = true;
+        for (int j = 0; j < ingredients.size(); j++) {
+            Ingredient ingredient = ingredients.get(j);
+            for (int i = 0; i < inputs.size(); i++) {
+                if (checked[i]) {
+                    continue;
                 }
-            }
 
-            if (!anyMatches) {
-                return false;
+                if (ingredient.test(inputs.get(i))) {
+                    checked[i] = true;
+                    matchCount++;
+                    break;
+                }
             }
         }
 
-        return true;
+        return matchCount >= inputs.size();
     }
 
-    public void markCacheDirty() {
-        isDirty = true;
+    @Override
+    public String getName() {
+        return recipeType.get().toString();
     }
 
-    private void checkCacheRebuild() {
-        if (isDirty && EffectiveSide.get().isServer()) {
-            rebuildCache(ServerLifecycleHooks.getCurrentServer().getRecipeManager());
-            isDirty = false;
+    @Override
+    public Runnable build(RecipeManager recipeManager) {
+        HashMap<Item, long[]> itemToRecipes = new HashMap<>();
+        List<T> recipesById = new ArrayList<>();
+        List<List<Ingredient>> ingredientsById = new ArrayList<>();
+
+        List<T> recipes = recipeManager.getAllRecipesFor(recipeType.get());
+        int wordCount = (recipes.size() + Long.SIZE - 1) / Long.SIZE;
+        long[] unindexedRecipes = new long[wordCount];
+        for (T recipe : recipes) {
+            int id = recipesById.size();
+            recipesById.add(recipe);
+            ingredientsById.add(recipe.getIngredients());
+
+            var items = recipe.getIngredients().stream()
+                .flatMap(ingredient -> Arrays.stream(ingredient.getItems()))
+                .map(ItemStack::getItem)
+                .toList();
+
+            if (items.isEmpty()) {
+                set(unindexedRecipes, id);
+            }
+            for (Item item : items) {
+                set(itemToRecipes.computeIfAbsent(item, (i) -> new long[wordCount]), id);
+            }
         }
+
+        Snapshot<T> snapshot = new Snapshot<>(itemToRecipes, recipesById, ingredientsById, unindexedRecipes, wordCount);
+        return () -> this.snapshot = snapshot;
     }
 
-    public void rebuildCache(RecipeManager recipeManager) {
-        itemToRecipesCache.clear();
-        recipeToIngredientCache.clear();
-        recipeManager.getAllRecipesFor(recipeType.get())
-            .forEach(recipe -> {
-                var items = recipe.getIngredients().stream()
-                    .flatMap(ingredient -> Arrays.stream(ingredient.getItems()))
-                    .map(ItemStack::getItem)
-                    .toList();
-
-                recipeToIngredientCache.put(recipe, recipe.getIngredients());
-                for (Item item : items) {
-                    itemToRecipesCache.computeIfAbsent(item, (i) -> new HashSet<>())
-                        .add(recipe);
-                }
-            });
+    @Override
+    public String describe() {
+        Snapshot<T> snapshot = this.snapshot;
+        return snapshot.recipesById().size() + " recipes, " + snapshot.itemToRecipes().size() + " items";
+    }
+
+    private static void set(long[] bits, int id) {
+        bits[id / Long.SIZE] |= 1L << (id % Long.SIZE);
+    }
+
+    /**
+     * @param recipesById the recipes in recipe manager order
+     * @param unindexedRecipes the recipes without any ingredient items, they are candidates for every container
+     */
+    private record Snapshot<T>(Map<Item, long[]> itemToRecipes, List<T> recipesById, List<List<Ingredient>> ingredientsById,
+        long[] unindexedRecipes, int wordCount) {
+    }
+
+    /**
+     * Buffers of one thread, the client and server thread share the caches in singleplayer.
+     */
+    private static class Scratch {
+        private long[] candidates = new long[0];
+        private long[] lookup = new long[0];
+        private boolean[] checked = new boolean[0];
+        private final List<ItemStack> items = new ArrayList<>();
+
+        private long[] candidates(int wordCount) {
+            if (candidates.length < wordCount) {
+                candidates = new long[wordCount];
+            }
+            return candidates;
+        }
+
+        private long[] lookup(int wordCount) {
+            if (lookup.length < wordCount) {
+                lookup = new long[wordCount];
+            }
+            return lookup;
+        }
+
+        private boolean[] checked(int inputCount) {
+            if (checked.length < inputCount) {
+                checked = new boolean[inputCount];
+            }
+            return checked;
+        }
     }
 }
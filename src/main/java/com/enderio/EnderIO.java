@@ -21,6 +21,7 @@ import com.enderio.base.common.item.tool.SoulVialItem;
 import com.enderio.base.common.lang.EIOLang;
 import com.enderio.base.common.network.EIONetwork;
 import com.enderio.base.common.tag.EIOTags;
+import com.enderio.base.common.util.GrindingBallManager;
 import com.enderio.base.data.EIODataProvider;
 import com.enderio.base.data.advancement.EIOAdvancementGenerator;
 import com.enderio.base.data.loot.ChestLootProvider;
@@ -113,6 +114,7 @@ public class EnderIO {
         EIOPackets.register();
         EIOLang.register();
         EIORecipes.register();
+        GrindingBallManager.register();
         EIOLootModifiers.register();
         EIOParticles.register();
         EIOEntities.register();
@@ -6,74 +6,70 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.RecipeManager;
-import net.minecraftforge.client.event.RecipesUpdatedEvent;
-import net.minecraftforge.event.AddReloadListenerEvent;
-import net.minecraftforge.eventbus.api.SubscribeEvent;
-import net.minecraftforge.fml.common.Mod;
-import net.minecraftforge.fml.util.thread.EffectiveSide;
-import net.minecraftforge.server.ServerLifecycleHooks;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-@Mod.EventBusSubscriber
 public class GrindingBallManager {
-    private static final HashMap<Item, IGrindingBallData> ITEM_TO_DATA = new HashMap<>();
-    private static final HashMap<ResourceLocation, IGrindingBallData> ID_TO_DATA = new HashMap<>();
+    private static final Index INDEX = new Index();
 
-    private static boolean clearCache = false;
+    public static void register() {
+        RecipeIndexService.register(INDEX);
+    }
 
     public static boolean isGrindingBall(ItemStack stack) {
-        checkCacheRebuild();
+        RecipeIndexService.awaitFirstBuild(INDEX);
         return !stack.isEmpty()
-            && ITEM_TO_DATA.containsKey(stack.getItem());
+            && INDEX.data.itemToData().containsKey(stack.getItem());
     }
 
     public static IGrindingBallData getData(ItemStack stack) {
-        checkCacheRebuild();
+        RecipeIndexService.awaitFirstBuild(INDEX);
         Item item = stack.getItem();
-        return ITEM_TO_DATA.getOrDefault(item, IGrindingBallData.IDENTITY);
+        return INDEX.data.itemToData().getOrDefault(item, IGrindingBallData.IDENTITY);
     }
 
     public static List<Item> getGrindingBalls() {
-        checkCacheRebuild();
-        return List.copyOf(ITEM_TO_DATA.keySet());
+        RecipeIndexService.awaitFirstBuild(INDEX);
+        return List.copyOf(INDEX.data.itemToData().keySet());
     }
 
     public static IGrindingBallData getData(ResourceLocation dataId) {
-        checkCacheRebuild();
-        return ID_TO_DATA.getOrDefault(dataId, IGrindingBallData.IDENTITY);
+        RecipeIndexService.awaitFirstBuild(INDEX);
+        return INDEX.data.idToData().getOrDefault(dataId, IGrindingBallData.IDENTITY);
     }
 
+    private static class Index implements RecipeIndexService.Index {
+        private volatile Data data = new Data(Map.of(), Map.of());
 
-    @SubscribeEvent
-    public static void registerReloadListener(AddReloadListenerEvent event) {
-        //Fired on datapack reload
-        clearCache = true;
-    }
-    @SubscribeEvent
-    public static void onRecipesUpdated(RecipesUpdatedEvent event) {
-        rebuildCache(event.getRecipeManager());
-    }
-
-    private static void checkCacheRebuild() {
-        if (clearCache && EffectiveSide.get().isServer()) {
-            rebuildCache(ServerLifecycleHooks.getCurrentServer().getRecipeManager());
-            clearCache = false;
+        @Override
+        public String getName() {
+            return "grinding_balls";
         }
-    }
 
-    private static void rebuildCache(RecipeManager manager) {
+        @Override
+        public Runnable build(RecipeManager manager) {
+            HashMap<Item, IGrindingBallData> itemToData = new HashMap<>();
+            HashMap<ResourceLocation, IGrindingBallData> idToData = new HashMap<>();
 
-        // Wipe the lookup table
-        ITEM_TO_DATA.clear();
-        ID_TO_DATA.clear();
+            // Discover all grindingballs again.
+            manager.getAllRecipesFor(EIORecipes.GRINDING_BALL.type().get())
+                .forEach(grindingBallRecipe -> {
+                    itemToData.put(grindingBallRecipe.getItem(), grindingBallRecipe);
+                    idToData.put(grindingBallRecipe.getGrindingBallId(), grindingBallRecipe);
+                });
 
-        // Discover all grindingballs again.
-        manager.getAllRecipesFor(EIORecipes.GRINDING_BALL.type().get())
-            .forEach(grindingBallRecipe -> {
-                ITEM_TO_DATA.put(grindingBallRecipe.getItem(), grindingBallRecipe);
-                ID_TO_DATA.put(grindingBallRecipe.getGrindingBallId(), grindingBallRecipe);
-            });
+            Data data = new Data(itemToData, idToData);
+            return () -> this.data = data;
+        }
+
+        @Override
+        public String describe() {
+            return data.itemToData().size() + " balls";
+        }
+
+        private record Data(Map<Item, IGrindingBallData> itemToData, Map<ResourceLocation, IGrindingBallData> idToData) {
+        }
     }
 }
@@ -0,0 +1,161 @@
+package com.enderio.base.common.util;
+
+import com.enderio.EnderIO;
+import net.minecraft.Util;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraftforge.client.event.RecipesUpdatedEvent;
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Builds all recipe indices of EnderIO on a background thread after the recipes were (re)loaded, instead of on the first thread that needs one.
+ * The indices of a build are swapped in together once all of them are built, until then the previous ones are used.
+ * Indices have to call {@link #awaitFirstBuild} before they are read, which only waits if the index was never built, as there is nothing to answer with yet.
+ */
+@Mod.EventBusSubscriber
+public final class RecipeIndexService {
+
+    private static final List<Index> INDICES = new CopyOnWriteArrayList<>();
+
+    // Indices that were swapped in at least once
+    private static final Set<Index> BUILT_INDICES = ConcurrentHashMap.newKeySet();
+
+    private static volatile CompletableFuture<Void> build = CompletableFuture.completedFuture(null);
+
+    // The recipe manager of the datapack reload that is running, built once the tags are bound
+    @Nullable
+    private static RecipeManager reloadedRecipeManager;
+
+    // The recipe manager the indices were last built from, for indices registered later
+    @Nullable
+    private static RecipeManager currentRecipeManager;
+
+    private RecipeIndexService() {
+    }
+
+    public interface Index {
+        String getName();
+
+        /**
+         * Builds the index from the recipes, this is called on a background thread and must not change the index yet.
+         * @return the action that replaces the contents of the index with the built ones
+         */
+        Runnable build(RecipeManager recipeManager);
+
+        /**
+         * @return the size of the index, for the log
+         */
+        String describe();
+    }
+
+    /**
+     * Adds the indices to all following builds, they are built together right away if recipes were loaded already.
+     * Register all indices of a mod at once during mod construction, so they are part of the first build.
+     */
+    public static synchronized void register(Index... indices) {
+        List<Index> registered = List.of(indices);
+        INDICES.addAll(registered);
+        if (currentRecipeManager != null) {
+            queueBuild(currentRecipeManager, registered);
+        }
+    }
+
+    /**
+     * Waits for the running build if the index was never built.
+     * Once it was, readers keep using the previous contents until the running build swaps in the new ones, instead of blocking their thread.
+     */
+    public static void awaitFirstBuild(Index index) {
+        if (BUILT_INDICES.contains(index)) {
+            return;
+        }
+
+        CompletableFuture<Void> currentBuild = build;
+        if (!currentBuild.isDone()) {
+            try {
+                currentBuild.join();
+            } catch (CompletionException | CancellationException e) {
+                EnderIO.LOGGER.error("Failed to wait for recipe index {}", index.getName(), e);
+            }
+        }
+    }
+
+    private static synchronized void rebuild(RecipeManager recipeManager) {
+        currentRecipeManager = recipeManager;
+        queueBuild(recipeManager, List.copyOf(INDICES));
+    }
+
+    /**
+     * Runs the build after the previous one, even if that one failed, so a broken build doesn't stop all following reloads.
+     */
+    private static void queueBuild(RecipeManager recipeManager, List<Index> indices) {
+        build = build
+            .handle((ignored, throwable) -> (Void) null)
+            .thenRunAsync(() -> buildAll(recipeManager, indices), Util.backgroundExecutor());
+    }
+
+    private static void buildAll(RecipeManager recipeManager, List<Index> indices) {
+        try {
+            long start = System.nanoTime();
+            List<Runnable> swaps = new ArrayList<>(indices.size());
+            for (Index index : indices) {
+                try {
+                    swaps.add(index.build(recipeManager));
+                } catch (Exception e) {
+                    EnderIO.LOGGER.error("Failed to build recipe index {}", index.getName(), e);
+                }
+            }
+
+            for (Runnable swap : swaps) {
+                try {
+                    swap.run();
+                } catch (Exception e) {
+                    EnderIO.LOGGER.error("Failed to swap in a recipe index", e);
+                }
+            }
+
+            StringJoiner sizes = new StringJoiner(", ");
+            for (Index index : indices) {
+                sizes.add(index.getName() + " (" + index.describe() + ")");
+            }
+            EnderIO.LOGGER.info("Built {} recipe indices in {}ms: {}", swaps.size(), (System.nanoTime() - start) / 1_000_000, sizes);
+        } catch (Exception e) {
+            EnderIO.LOGGER.error("Failed to build recipe indices", e);
+        } finally {
+            // A failed index is still marked, so readers don't wait on it again
+            BUILT_INDICES.addAll(indices);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onAddReloadListener(AddReloadListenerEvent event) {
+        // Fired on datapack reload, ingredients only see the new tags after the reload finished
+        reloadedRecipeManager = event.getServerResources().getRecipeManager();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD && reloadedRecipeManager != null) {
+            rebuild(reloadedRecipeManager);
+            reloadedRecipeManager = null;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onRecipesUpdated(RecipesUpdatedEvent event) {
+        rebuild(event.getRecipeManager());
+    }
+}